@@ -0,0 +1,124 @@
+// CachingOrderDAO.java
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps the most recently viewed order details (-Dstore.orderDetailCache.size, default 512) in
+// front of another OrderDAO, so clicking around the order lists doesn't re-run the detail join.
+//
+// An order's lines and coupon are fixed once it is placed, so entries never go stale; they are
+// only dropped when the order is deleted (singly or in bulk) or cancelled. Deleting a user deletes
+// their orders inside UserDAO, which knows nothing of this cache, so DAOFactory calls invalidate()
+// after it. Everything else passes straight through.
+public class CachingOrderDAO implements OrderDAO {
+
+    private static final int SIZE = Integer.getInteger("store.orderDetailCache.size", 512);
+
+    private final OrderDAO delegate;
+    private final Map<Integer, OrderDetail> details = new LinkedHashMap<Integer, OrderDetail>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, OrderDetail> eldest) {
+            return size() > SIZE;
+        }
+    };
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    // bumped by every removal, so a detail read before one isn't cached after it
+    private final AtomicLong removals = new AtomicLong();
+
+    public CachingOrderDAO(OrderDAO delegate) {
+        this.delegate = delegate;
+        DaoMetrics.addReport(this::getStats);
+    }
+
+    public OrderDetail getOrderDetails(int orderId) {
+        synchronized (details) {
+            OrderDetail d = details.get(orderId);
+            if (d != null) {
+                hits.incrementAndGet();
+                return d;
+            }
+        }
+        misses.incrementAndGet();
+        long before = removals.get();
+        OrderDetail d = delegate.getOrderDetails(orderId);
+        // not found (or failed) isn't cached: the id may simply not exist yet
+        if (d != null) {
+            synchronized (details) {
+                if (removals.get() == before) details.put(orderId, d);
+            }
+        }
+        return d;
+    }
+
+    public int placeOrder(int customerId, Integer couponId, List<OrderItem> lines) {
+        return delegate.placeOrder(customerId, couponId, lines);
+    }
+
+    public OrderPage findOrders(OrderQuery query) {
+        return delegate.findOrders(query);
+    }
+
+    public List<OrderSummary> listOrdersForCustomer(int customerId) {
+        return delegate.listOrdersForCustomer(customerId);
+    }
+
+    public boolean cancelOrder(int orderId, int customerId) {
+        boolean ok = delegate.cancelOrder(orderId, customerId);
+        if (ok) forget(orderId);
+        return ok;
+    }
+
+    public boolean changeOrderStatus(int orderId, String status) {
+        return delegate.changeOrderStatus(orderId, status);
+    }
+
+    public int changeOrderStatus(Collection<Integer> orderIds, String status) {
+        return delegate.changeOrderStatus(orderIds, status);
+    }
+
+    public boolean deleteOrder(int orderId) {
+        boolean ok = delegate.deleteOrder(orderId);
+        if (ok) forget(orderId);
+        return ok;
+    }
+
+    // ids are dropped whatever the outcome; a spare miss is cheaper than a stale hit
+    public int deleteOrders(Collection<Integer> orderIds) {
+        try {
+            return delegate.deleteOrders(orderIds);
+        } finally {
+            synchronized (details) {
+                removals.incrementAndGet();
+                details.keySet().removeAll(orderIds);
+            }
+        }
+    }
+
+    private void forget(int orderId) {
+        synchronized (details) {
+            removals.incrementAndGet();
+            details.remove(orderId);
+        }
+    }
+
+    // Drops every entry (orders were deleted behind this DAO's back, e.g. with their user)
+    public void invalidate() {
+        synchronized (details) {
+            removals.incrementAndGet();
+            details.clear();
+        }
+    }
+
+    public String getStats() {
+        long h = hits.get(), m = misses.get();
+        int size;
+        synchronized (details) {
+            size = details.size();
+        }
+        return String.format("order detail cache: hits=%d misses=%d hitRatio=%.1f%% entries=%d",
+                h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), size);
+    }
+}
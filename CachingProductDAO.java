@@ -0,0 +1,317 @@
+// CachingProductDAO.java
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// In-memory copy of the active catalog in front of another ProductDAO.
+//
+// The active catalog is loaded as ProductSummary rows (one projection query, no descriptions)
+// and kept as an immutable, versioned snapshot (ordered list + id map). findById and the paged
+// listActiveProducts are answered from it, so browsing costs no round trips in steady state.
+// Only the first page of a browse loads it, and only while the catalog has at most
+// -Dstore.catalogCache.maxProducts rows (default 10000); a bigger catalog is paged from the
+// delegate instead. Without a fresh snapshot findById fetches just that row.
+// Descriptions are only fetched when a product is opened, and the most recent ones are kept in
+// a small LRU (-Dstore.descriptionCache.size, default 256).
+//
+// Writes made through this DAO patch the snapshot in place; changes made elsewhere (another
+// instance of the app, a SQL console) show up once the snapshot is older than
+// -Dstore.catalogCache.ttlMs (default 30000).
+//
+// Callers always get fresh objects, so mutating them (the cart does) cannot corrupt the cache.
+public class CachingProductDAO implements ProductDAO {
+
+    private static final long TTL_MILLIS = Long.getLong("store.catalogCache.ttlMs", 30_000L);
+    private static final int DESCRIPTIONS = Integer.getInteger("store.descriptionCache.size", 256);
+    private static final int MAX_PRODUCTS = Integer.getInteger("store.catalogCache.maxProducts", 10_000);
+
+    private final ProductDAO delegate;
+    private final AtomicReference<Catalog> catalog = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();   // bumped by every write, seen or not
+    private volatile long tooBigUntil;                    // catalog was over MAX_PRODUCTS; don't retry before
+
+    private final Map<Integer, String> descriptions = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > DESCRIPTIONS;
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong descriptionHits = new AtomicLong();
+    private final AtomicLong descriptionMisses = new AtomicLong();
+
+    // Immutable snapshot; replaced as a whole, never modified
+    private static class Catalog {
+        final long version;
+        final long loadedAt;
+        final List<ProductSummary> active;          // newest first, like the DAO returns them
+        final Map<Integer, ProductSummary> byId;
+
+        Catalog(long version, long loadedAt, List<ProductSummary> active) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.active = Collections.unmodifiableList(active);
+            Map<Integer, ProductSummary> map = new HashMap<>();
+            for (ProductSummary p : active) map.put(p.getProductId(), p);
+            this.byId = map;
+        }
+
+        boolean isFresh(long now) {
+            return now - loadedAt < TTL_MILLIS;
+        }
+    }
+
+    public CachingProductDAO(ProductDAO delegate) {
+        this.delegate = delegate;
+        DaoMetrics.addReport(this::getStats);
+    }
+
+    public boolean createProduct(Product p) {
+        boolean ok = delegate.createProduct(p);
+        if (ok && p.getProductId() > 0) {
+            if (p.getImagePath() == null || p.getImagePath().isEmpty()) {
+                // createProduct stores a placeholder; rather than guess, let the next load fetch it
+                invalidate();
+            } else {
+                ProductSummary cached = summaryOf(p);
+                patch(list -> list.add(0, cached));
+                rememberDescription(p.getProductId(), p.getDescription());
+            }
+        }
+        return ok;
+    }
+
+    // A bulk import replaces too much to patch row by row; reload on next read instead
+    public boolean createProducts(List<Product> products) {
+        boolean ok = delegate.createProducts(products);
+        if (ok) invalidate();
+        return ok;
+    }
+
+    public Product findById(int id) {
+        Catalog c = catalog.get();
+        if (c == null || !c.isFresh(System.currentTimeMillis())) {
+            // a point lookup stays a point lookup; the snapshot is (re)loaded by browsing
+            misses.incrementAndGet();
+            Product p = delegate.findById(id);
+            if (p != null) rememberDescription(id, p.getDescription());
+            return p;
+        }
+        hits.incrementAndGet();
+        ProductSummary s = c.byId.get(id);
+        if (s == null) return null;
+
+        Product p = new Product();
+        p.setProductId(s.getProductId());
+        p.setName(s.getName());
+        p.setDescription(findDescription(id));
+        p.setPriceCents(s.getPriceCents());
+        p.setStockQuantity(s.getStockQuantity());
+        p.setActive(true);
+        p.setImagePath(s.getImagePath());
+        return p;
+    }
+
+    // Not cached: it covers deactivated products too, and it is one round trip already
+    public Map<Integer, Product> findByIds(Collection<Integer> ids) {
+        return delegate.findByIds(ids);
+    }
+
+    // Full rows with descriptions are not cached; the list views use the paged summaries
+    public List<Product> listActiveProducts() {
+        return delegate.listActiveProducts();
+    }
+
+    // Pages come from the snapshot when one is cached. Without one, the first page loads it
+    // (at most MAX_PRODUCTS + 1 rows) and later pages go straight to the delegate: paging must
+    // stay cheap for catalogs too big to want loaded in full.
+    public List<ProductSummary> listActiveProducts(int afterId, int limit) {
+        long now = System.currentTimeMillis();
+        Catalog c = catalog.get();
+        List<ProductSummary> active;
+        if (c != null && c.isFresh(now)) {
+            hits.incrementAndGet();
+            active = c.active;
+        } else {
+            misses.incrementAndGet();
+            if (afterId > 0 || now < tooBigUntil) return delegate.listActiveProducts(afterId, limit);
+            active = load(c);
+            if (active.size() > MAX_PRODUCTS) {
+                tooBigUntil = now + TTL_MILLIS;
+                return new ArrayList<>(active.subList(0, Math.min(limit, active.size())));
+            }
+        }
+        // ids are descending: binary search for the first one below afterId
+        int lo = 0, hi = active.size();
+        if (afterId > 0) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (active.get(mid).getProductId() >= afterId) lo = mid + 1;
+                else hi = mid;
+            }
+        }
+        List<ProductSummary> page = new ArrayList<>(Math.max(0, Math.min(limit, active.size() - lo)));
+        for (int i = lo; i < active.size() && page.size() < limit; i++) page.add(copyOf(active.get(i)));
+        return page;
+    }
+
+    public String findDescription(int productId) {
+        synchronized (descriptions) {
+            if (descriptions.containsKey(productId)) {
+                descriptionHits.incrementAndGet();
+                return descriptions.get(productId);
+            }
+        }
+        descriptionMisses.incrementAndGet();
+        String d = delegate.findDescription(productId);
+        rememberDescription(productId, d);
+        return d;
+    }
+
+    public boolean updateStock(int productId, int newStock) {
+        boolean ok = delegate.updateStock(productId, newStock);
+        if (ok) {
+            patch(list -> {
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i).getProductId() == productId) {
+                        ProductSummary p = copyOf(list.get(i));
+                        p.setStockQuantity(newStock);
+                        list.set(i, p);
+                    }
+                }
+            });
+        }
+        return ok;
+    }
+
+    public boolean tryDecrementStock(int productId, int qty) {
+        return afterDecrement(delegate.tryDecrementStock(productId, qty), Collections.singletonMap(productId, qty));
+    }
+
+    public boolean tryDecrementStock(Map<Integer, Integer> quantities) {
+        return afterDecrement(delegate.tryDecrementStock(quantities), quantities);
+    }
+
+    public void stockDecremented(Map<Integer, Integer> quantities) {
+        delegate.stockDecremented(quantities);
+        afterDecrement(true, quantities);
+    }
+
+    // On success apply the same relative change to the snapshot. On failure our stock figures
+    // were evidently wrong (someone else bought it), so drop the snapshot.
+    private boolean afterDecrement(boolean ok, Map<Integer, Integer> quantities) {
+        if (!ok) {
+            invalidate();
+            return false;
+        }
+        patch(list -> {
+            for (int i = 0; i < list.size(); i++) {
+                Integer qty = quantities.get(list.get(i).getProductId());
+                if (qty != null) {
+                    ProductSummary p = copyOf(list.get(i));
+                    p.setStockQuantity(p.getStockQuantity() - qty);
+                    list.set(i, p);
+                }
+            }
+        });
+        return true;
+    }
+
+    public boolean deleteProduct(int productId) {
+        boolean ok = delegate.deleteProduct(productId);
+        if (ok) {
+            patch(list -> list.removeIf(p -> p.getProductId() == productId));
+            synchronized (descriptions) {
+                descriptions.remove(productId);
+            }
+        }
+        return ok;
+    }
+
+    // Drops the snapshot and descriptions; the next read reloads them
+    public void invalidate() {
+        writes.incrementAndGet();
+        catalog.set(null);
+        synchronized (descriptions) {
+            descriptions.clear();
+        }
+    }
+
+    public String getStats() {
+        long h = hits.get(), m = misses.get();
+        long dh = descriptionHits.get(), dm = descriptionMisses.get();
+        Catalog c = catalog.get();
+        return String.format("catalog cache: hits=%d misses=%d hitRatio=%.1f%% loads=%d products=%d version=%d"
+                        + " | descriptions: hits=%d misses=%d hitRatio=%.1f%%",
+                h, m, h + m == 0 ? 0.0 : 100.0 * h / (h + m), loads.get(),
+                c == null ? 0 : c.active.size(), c == null ? 0 : c.version,
+                dh, dm, dh + dm == 0 ? 0.0 : 100.0 * dh / (dh + dm));
+    }
+
+    // Reads up to MAX_PRODUCTS + 1 active products and keeps them as the snapshot if that was
+    // the whole catalog; returns the rows either way
+    private List<ProductSummary> load(Catalog seen) {
+        long writesBefore = writes.get();
+        List<ProductSummary> rows = delegate.listActiveProducts(0, MAX_PRODUCTS + 1);
+        loads.incrementAndGet();
+        // the DAOs return an empty list on error too, so an empty result is used once but not kept;
+        // and if a write went through while we were loading, our rows may predate it
+        if (!rows.isEmpty() && rows.size() <= MAX_PRODUCTS && writes.get() == writesBefore) {
+            catalog.compareAndSet(seen, new Catalog(versions.incrementAndGet(), System.currentTimeMillis(), rows));
+        }
+        return rows;
+    }
+
+    private interface Patch {
+        void apply(List<ProductSummary> list);
+    }
+
+    // Copy-on-write update of the snapshot; keeps its load time so the TTL still applies
+    private void patch(Patch change) {
+        writes.incrementAndGet();
+        while (true) {
+            Catalog c = catalog.get();
+            if (c == null) return;   // nothing cached, the next read loads fresh data anyway
+            List<ProductSummary> list = new ArrayList<>(c.active);
+            change.apply(list);
+            Catalog next = new Catalog(versions.incrementAndGet(), c.loadedAt, list);
+            if (catalog.compareAndSet(c, next)) return;
+        }
+    }
+
+    private void rememberDescription(int productId, String description) {
+        synchronized (descriptions) {
+            descriptions.put(productId, description);
+        }
+    }
+
+    private static ProductSummary summaryOf(Product p) {
+        ProductSummary s = new ProductSummary();
+        s.setProductId(p.getProductId());
+        s.setName(p.getName());
+        s.setPriceCents(p.getPriceCents());
+        s.setStockQuantity(p.getStockQuantity());
+        s.setImagePath(p.getImagePath());
+        return s;
+    }
+
+    private static ProductSummary copyOf(ProductSummary p) {
+        ProductSummary c = new ProductSummary();
+        c.setProductId(p.getProductId());
+        c.setName(p.getName());
+        c.setPriceCents(p.getPriceCents());
+        c.setStockQuantity(p.getStockQuantity());
+        c.setImagePath(p.getImagePath());
+        return c;
+    }
+}
@@ -0,0 +1,60 @@
+// CascadingUserDAO.java
+import java.util.List;
+
+// In front of another UserDAO: deleteUser also deletes the user's orders, so after a successful
+// delete the caches holding those orders are told (DAOFactory passes a callback that clears the
+// order detail cache). Everything else passes straight through.
+public class CascadingUserDAO implements UserDAO {
+
+    private final UserDAO delegate;
+    private final Runnable ordersDeleted;
+
+    public CascadingUserDAO(UserDAO delegate, Runnable ordersDeleted) {
+        this.delegate = delegate;
+        this.ordersDeleted = ordersDeleted;
+    }
+
+    public User findByUsername(String username) {
+        return delegate.findByUsername(username);
+    }
+
+    public User findById(int userId) {
+        return delegate.findById(userId);
+    }
+
+    public boolean createCustomer(User user) {
+        return delegate.createCustomer(user);
+    }
+
+    public boolean createEmployee(User u) {
+        return delegate.createEmployee(u);
+    }
+
+    public void updatePasswordAndDisableFlag(User u) {
+        delegate.updatePasswordAndDisableFlag(u);
+    }
+
+    public List<User> listCustomers() {
+        return delegate.listCustomers();
+    }
+
+    public boolean updateCustomerInfo(User user) {
+        return delegate.updateCustomerInfo(user);
+    }
+
+    public boolean deleteUser(int userId) {
+        boolean ok = delegate.deleteUser(userId);
+        if (ok) ordersDeleted.run();
+        return ok;
+    }
+
+    public boolean updateCustomerByAdmin(int userId, String fullName, String address,
+                                         String username, String password) {
+        return delegate.updateCustomerByAdmin(userId, fullName, address, username, password);
+    }
+
+    public boolean updateEmployeeByAdmin(int userId, String fullName,
+                                         String username, String password) {
+        return delegate.updateEmployeeByAdmin(userId, fullName, username, password);
+    }
+}
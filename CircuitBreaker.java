@@ -0,0 +1,90 @@
+// CircuitBreaker.java
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Fails fast while the database is unreachable.
+//
+// CLOSED    - everything goes through; consecutive connection-level failures are counted.
+// OPEN      - after failureThreshold failures in a row every request is rejected at once
+//             for openMillis instead of hanging the caller (and the Swing EDT).
+// HALF_OPEN - once openMillis has passed, one probe request at a time is let through.
+//             A success closes the breaker again, a failure re-opens it.
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+    private volatile long nextProbeAt;
+    private volatile long rejected;
+    private volatile long trips;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    // True if the caller may try the database now
+    public synchronized boolean allowRequest() {
+        long now = System.currentTimeMillis();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now < openUntil) {
+                    rejected++;
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                nextProbeAt = now + openMillis;
+                return true;
+            default:
+                // HALF_OPEN: one probe per interval; if a probe never reports back, let another one try later
+                if (now >= nextProbeAt) {
+                    nextProbeAt = now + openMillis;
+                    return true;
+                }
+                rejected++;
+                return false;
+        }
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            synchronized (this) {
+                if (state != State.CLOSED) {
+                    System.err.println("[" + name + "] database reachable again, circuit closed");
+                    state = State.CLOSED;
+                }
+            }
+        }
+    }
+
+    public void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            synchronized (this) {
+                if (state != State.OPEN) {
+                    trips++;
+                    System.err.println("[" + name + "] database unreachable, circuit open for " + openMillis + " ms");
+                }
+                state = State.OPEN;
+                openUntil = System.currentTimeMillis() + openMillis;
+            }
+        }
+    }
+
+    public State getState() { return state; }
+    public long getRejected() { return rejected; }
+    public long getTrips() { return trips; }
+
+    public long millisUntilRetry() {
+        return Math.max(0, openUntil - System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,420 @@
+// ConnectionPool.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded JDBC connection pool.
+// Connections handed out by borrow() are proxies: calling close() on them returns the
+// physical connection to the pool instead of closing the socket, so the DAOs can keep
+// using try-with-resources exactly as before.
+//
+// Each borrow is treated as one DAO operation with its own deadline; statements created
+// on the lease get the remaining time as their query timeout (see PooledStatement).
+// A CircuitBreaker makes borrow() fail fast while the server is unreachable.
+public class ConnectionPool {
+
+    // Tuning knobs; DBConnection fills these from -Ddb.* system properties
+    public static class Settings {
+        public int minSize = 2;
+        public int maxSize = 10;
+        public long borrowTimeoutMillis = 5_000;
+        public long idleTimeoutMillis = 300_000;
+        public long leakThresholdMillis = 60_000;
+        public int statementCacheSize = 64;
+        // idle connections are pinged this often so dead sockets are found before a borrower hits them
+        public long keepaliveMillis = 30_000;
+        // a connection idle longer than this is pinged on borrow
+        public long validateAfterIdleMillis = 5_000;
+        public int validationTimeoutSeconds = 2;
+        public int queryTimeoutSeconds = 10;
+        public long operationTimeoutMillis = 15_000;
+        public int breakerFailureThreshold = 3;
+        public long breakerOpenMillis = 10_000;
+        // replica pools hand out read-only connections
+        public boolean readOnly = false;
+    }
+
+    private final String name;
+    private final String url;
+    private final Properties connectionProperties;
+    private final Settings settings;
+    private final CircuitBreaker breaker;
+
+    // most recently returned connection sits at the head (LIFO keeps a warm working set)
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private volatile long lastWriteMillis;
+
+    public ConnectionPool(String name, String url, Properties connectionProperties, Settings settings) {
+        if (settings.minSize < 0 || settings.maxSize < 1 || settings.minSize > settings.maxSize) {
+            throw new IllegalArgumentException("Invalid pool size min=" + settings.minSize +
+                    " max=" + settings.maxSize);
+        }
+        this.name = name;
+        this.url = url;
+        this.connectionProperties = connectionProperties;
+        this.settings = settings;
+        this.breaker = new CircuitBreaker(name, settings.breakerFailureThreshold, settings.breakerOpenMillis);
+        this.permits = new Semaphore(settings.maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(settings.idleTimeoutMillis, settings.keepaliveMillis) / 2);
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Settings getSettings() { return settings; }
+    public CircuitBreaker getBreaker() { return breaker; }
+
+    // Wall-clock time of the last successful update through this pool (0 = none yet)
+    public long getLastWriteMillis() { return lastWriteMillis; }
+
+    void noteWrite() {
+        lastWriteMillis = System.currentTimeMillis();
+    }
+
+    // Borrow a connection, waiting at most borrowTimeoutMillis for one to become free
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool '" + name + "' is closed");
+
+        boolean probe = breaker.getState() != CircuitBreaker.State.CLOSED;
+        if (!breaker.allowRequest()) {
+            throw new SQLTransientConnectionException("Database '" + name + "' is unavailable; retrying in " +
+                    (breaker.millisUntilRetry() / 1000 + 1) + " s", "08001");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(settings.borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLTimeoutException("Timed out after " + settings.borrowTimeoutMillis +
+                        " ms waiting for a connection from pool '" + name + "' " + getStats());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        } finally {
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+
+        PooledConnection pc;
+        try {
+            pc = takeValidConnection(probe);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.borrowStack = settings.leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+        pc.leakReported = false;
+        borrowed.add(pc);
+        borrowCount.incrementAndGet();
+        return pc.newLease();
+    }
+
+    // Reuses an idle connection (pinging it first if it sat idle for a while or if this borrow
+    // is a circuit breaker probe) or opens a new one
+    private PooledConnection takeValidConnection(boolean probe) throws SQLException {
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            boolean stale = System.currentTimeMillis() - pc.lastUsed > settings.validateAfterIdleMillis;
+            if (!(probe || stale) || isAlive(pc)) {
+                if (probe) breaker.recordSuccess();
+                return pc;
+            }
+            destroy(pc);
+        }
+        try {
+            pc = createPhysical();
+            breaker.recordSuccess();
+            return pc;
+        } catch (SQLException e) {
+            breaker.recordFailure();
+            throw e;
+        }
+    }
+
+    private boolean isAlive(PooledConnection pc) {
+        try {
+            if (pc.raw.isValid(settings.validationTimeoutSeconds)) return true;
+        } catch (SQLException ignored) {
+        }
+        validationFailures.incrementAndGet();
+        return false;
+    }
+
+    private PooledConnection createPhysical() throws SQLException {
+        Connection raw = DriverManager.getConnection(url, connectionProperties);
+        if (settings.readOnly) raw.setReadOnly(true);
+        createdCount.incrementAndGet();
+        return new PooledConnection(raw);
+    }
+
+    // Called when a lease is closed by the DAO
+    private void release(PooledConnection pc) {
+        borrowed.remove(pc);
+        boolean reusable = false;
+        try {
+            if (!pc.raw.isClosed()) {
+                // undo whatever the borrower left behind (e.g. UserDAO.deleteUser turns autocommit off)
+                if (!pc.raw.getAutoCommit()) {
+                    pc.raw.rollback();
+                    pc.raw.setAutoCommit(true);
+                }
+                if (pc.raw.isReadOnly() != settings.readOnly) pc.raw.setReadOnly(settings.readOnly);
+                pc.raw.clearWarnings();
+                reusable = true;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        if (reusable && !closed) {
+            pc.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } else {
+            destroy(pc);
+        }
+        permits.release();
+    }
+
+    private void destroy(PooledConnection pc) {
+        pc.statements.clear();
+        try {
+            pc.raw.close();
+        } catch (SQLException ignored) {
+        }
+        destroyedCount.incrementAndGet();
+    }
+
+    // Evicts idle connections, pings the rest, tops the pool back up to minSize and reports leaks
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            // oldest idle connections are at the tail
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && totalConnections() > settings.minSize) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed > settings.idleTimeoutMillis && idle.remove(pc)) {
+                    destroy(pc);
+                }
+            }
+
+            keepalive(now);
+
+            while (!closed && breaker.getState() == CircuitBreaker.State.CLOSED
+                    && totalConnections() < settings.minSize && permits.tryAcquire()) {
+                try {
+                    PooledConnection pc = createPhysical();
+                    pc.lastUsed = now;
+                    idle.offerLast(pc);
+                } catch (SQLException e) {
+                    breaker.recordFailure();
+                    System.err.println("[" + name + "] could not pre-fill pool: " + e.getMessage());
+                    break;
+                } finally {
+                    permits.release();
+                }
+            }
+
+            if (settings.leakThresholdMillis > 0) {
+                for (PooledConnection pc : borrowed) {
+                    if (!pc.leakReported && now - pc.borrowedAt > settings.leakThresholdMillis) {
+                        pc.leakReported = true;
+                        leakCount.incrementAndGet();
+                        System.err.println("[" + name + "] possible connection leak: held for " +
+                                (now - pc.borrowedAt) + " ms");
+                        if (pc.borrowStack != null) pc.borrowStack.printStackTrace();
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Pings connections that have been idle for a keepalive interval. Each one is taken out of
+    // the idle deque while it is checked so no borrower can grab it mid-ping.
+    private void keepalive(long now) {
+        List<PooledConnection> due = new ArrayList<>();
+        for (PooledConnection pc : idle) {
+            if (now - pc.lastUsed >= settings.keepaliveMillis && now - pc.lastValidated >= settings.keepaliveMillis) {
+                due.add(pc);
+            }
+        }
+        for (PooledConnection pc : due) {
+            if (!idle.remove(pc)) continue; // borrowed in the meantime
+            if (isAlive(pc)) {
+                pc.lastValidated = System.currentTimeMillis();
+                idle.offerLast(pc);
+            } else {
+                System.err.println("[" + name + "] dropping dead idle connection");
+                destroy(pc);
+            }
+        }
+    }
+
+    private int totalConnections() {
+        return idle.size() + borrowed.size();
+    }
+
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    public Stats getStats() {
+        Stats s = new Stats();
+        s.name = name;
+        s.idle = idle.size();
+        s.active = borrowed.size();
+        s.maxSize = settings.maxSize;
+        s.waiting = permits.getQueueLength();
+        s.borrows = borrowCount.get();
+        s.created = createdCount.get();
+        s.destroyed = destroyedCount.get();
+        s.timeouts = timeoutCount.get();
+        s.leaks = leakCount.get();
+        s.totalWaitMillis = TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+        s.validationFailures = validationFailures.get();
+        s.breakerState = breaker.getState();
+        s.breakerRejected = breaker.getRejected();
+        s.statementCacheHits = StatementCache.getTotalHits();
+        s.statementCacheMisses = StatementCache.getTotalMisses();
+        return s;
+    }
+
+    // Point-in-time view of the pool counters
+    public static class Stats {
+        public String name;
+        public int idle, active, maxSize, waiting;
+        public long borrows, created, destroyed, timeouts, leaks, totalWaitMillis;
+        public long validationFailures, breakerRejected;
+        public CircuitBreaker.State breakerState;
+        public long statementCacheHits, statementCacheMisses;
+
+        @Override
+        public String toString() {
+            return String.format("[%s active=%d idle=%d max=%d waiting=%d borrows=%d created=%d " +
+                            "destroyed=%d timeouts=%d leaks=%d wait=%dms invalid=%d breaker=%s rejected=%d " +
+                            "stmtCache=%d/%d]",
+                    name, active, idle, maxSize, waiting, borrows, created, destroyed,
+                    timeouts, leaks, totalWaitMillis, validationFailures, breakerState, breakerRejected,
+                    statementCacheHits, statementCacheHits + statementCacheMisses);
+        }
+    }
+
+    // One physical connection owned by the pool
+    private class PooledConnection {
+        final Connection raw;
+        final StatementCache statements;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long lastValidated = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection raw) {
+            this.raw = raw;
+            this.statements = new StatementCache(raw, settings.statementCacheSize);
+        }
+
+        Connection newLease() {
+            Lease lease = new Lease(this);
+            lease.self = (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    lease);
+            return lease.self;
+        }
+    }
+
+    // Handle given to a single borrower; it is dead once closed so a stale
+    // reference can never touch a connection that now belongs to someone else
+    private class Lease implements InvocationHandler {
+        private PooledConnection pc;
+        private Connection self;
+        private final long deadlineNanos = settings.operationTimeoutMillis > 0
+                ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.operationTimeoutMillis) : 0;
+
+        Lease(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (pc != null) {
+                        PooledConnection owned = pc;
+                        pc = null;
+                        release(owned);
+                    }
+                    return null;
+                case "isClosed":
+                    return pc == null || pc.raw.isClosed();
+                case "unwrap":
+                    if (pc != null && ((Class<?>) args[0]).isInstance(pc.raw)) return pc.raw;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + name + "]" + (pc == null ? " (returned)" : "");
+            }
+            if (pc == null) throw new SQLException("Connection has already been returned to the pool");
+
+            Object result;
+            Class<?>[] types = method.getParameterTypes();
+            if (method.getName().equals("prepareStatement") && types.length == 1) {
+                // plain prepareStatement(sql) and prepareStatement(sql, autoGeneratedKeys) go through the cache
+                result = pc.statements.prepare((String) args[0], Statement.NO_GENERATED_KEYS);
+            } else if (method.getName().equals("prepareStatement") && types.length == 2 && types[1] == int.class) {
+                result = pc.statements.prepare((String) args[0], (Integer) args[1]);
+            } else {
+                try {
+                    result = method.invoke(pc.raw, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+
+            if (result instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return PooledStatement.wrap((Statement) result, method.getReturnType(), sql,
+                        self, ConnectionPool.this, deadlineNanos);
+            }
+            return result;
+        }
+    }
+}
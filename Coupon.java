@@ -4,7 +4,7 @@ public class Coupon {
     private String code;
     private String description;
     private String discountType; // "PERCENT" or "FIXED"
-    private double discountValue;
+    private long discountValue; // see Money: cents for FIXED, hundredths of a percent for PERCENT
 
     public int getCouponId() { return couponId; }
     public void setCouponId(int couponId) { this.couponId = couponId; }
@@ -18,6 +18,6 @@ public class Coupon {
     public String getDiscountType() { return discountType; }
     public void setDiscountType(String discountType) { this.discountType = discountType; }
 
-    public double getDiscountValue() { return discountValue; }
-    public void setDiscountValue(double discountValue) { this.discountValue = discountValue; }
+    public long getDiscountHundredths() { return discountValue; }
+    public void setDiscountHundredths(long discountValue) { this.discountValue = discountValue; }
 }
@@ -0,0 +1,128 @@
+// DAOFactory.java
+import java.io.IOException;
+import java.nio.file.Paths;
+
+// Chooses the storage engine behind the DAO interfaces.
+// Default is MySQL through DBConnection; run with -Dstore.engine=embedded to use the
+// in-process EmbeddedDatabase instead (no MySQL server needed).
+// Every DAO is wrapped by DaoMetrics so calls are timed whichever engine is used, and the
+// product catalog is served from CachingProductDAO behind the SearchableProductDAO index;
+// order details come through CachingOrderDAO, which CascadingUserDAO clears when a user is
+// deleted together with their orders. The sales report tables are kept up to date by the
+// order and user DAOs in the same transactions as the orders themselves.
+// Order writes also leave OrderEvents in the outbox, which OutboxRelay copies into the local
+// EventLog (-Dstore.events.dir, default data/events; -Dstore.events.relay=false to not run it).
+public class DAOFactory {
+
+    private static final String ENGINE = System.getProperty("store.engine", "mysql");
+    private static final boolean RELAY = Boolean.parseBoolean(System.getProperty("store.events.relay", "true"));
+    private static final String EVENTS_DIR = System.getProperty("store.events.dir", "data/events");
+    private static final int SEGMENT_BYTES = Integer.getInteger("store.events.segmentBytes", 16 * 1024 * 1024);
+    private static final long POLL_MILLIS = Long.getLong("store.outbox.pollMs", 50L);
+
+    private static UserDAO userDAO;
+    private static ProductDAO productDAO;
+    private static SearchableProductDAO productSearch;
+    private static CouponDAO couponDAO;
+    private static OrderDAO orderDAO;
+    private static CachingOrderDAO orderCache;
+    private static OutboxDAO outboxDAO;
+    private static SalesReportDAO salesReportDAO;
+    private static OrderExportDAO orderExportDAO;
+    private static EventLog orderEvents;
+    private static OutboxRelay relay;
+
+    public static boolean isEmbedded() {
+        return "embedded".equalsIgnoreCase(ENGINE);
+    }
+
+    public static synchronized UserDAO userDAO() {
+        if (userDAO == null) {
+            UserDAO impl = isEmbedded() ? new EmbeddedUserDAO(EmbeddedDatabase.get()) : new MySqlUserDAO();
+            userDAO = DaoMetrics.instrument(UserDAO.class, new CascadingUserDAO(impl, DAOFactory::userOrdersDeleted));
+        }
+        return userDAO;
+    }
+
+    public static synchronized ProductDAO productDAO() {
+        if (productDAO == null) {
+            ProductDAO impl = isEmbedded() ? new EmbeddedProductDAO(EmbeddedDatabase.get()) : new MySqlProductDAO();
+            productSearch = new SearchableProductDAO(new CachingProductDAO(impl));
+            productDAO = DaoMetrics.instrument(ProductDAO.class, productSearch);
+        }
+        return productDAO;
+    }
+
+    // Full-text product search; shares its index with productDAO(), whose writes keep it current
+    public static synchronized SearchableProductDAO productSearch() {
+        productDAO();
+        return productSearch;
+    }
+
+    // A user's orders went with the user; no order cache yet means nothing was cached
+    private static synchronized void userOrdersDeleted() {
+        if (orderCache != null) orderCache.invalidate();
+    }
+
+    public static synchronized CouponDAO couponDAO() {
+        if (couponDAO == null) {
+            CouponDAO impl = isEmbedded() ? new EmbeddedCouponDAO(EmbeddedDatabase.get()) : new MySqlCouponDAO();
+            couponDAO = DaoMetrics.instrument(CouponDAO.class, impl);
+        }
+        return couponDAO;
+    }
+
+    public static synchronized OrderDAO orderDAO() {
+        if (orderDAO == null) {
+            OrderDAO impl = isEmbedded() ? new EmbeddedOrderDAO(EmbeddedDatabase.get()) : new MySqlOrderDAO();
+            orderCache = new CachingOrderDAO(impl);
+            orderDAO = DaoMetrics.instrument(OrderDAO.class, orderCache);
+            if (RELAY) startRelay();
+        }
+        return orderDAO;
+    }
+
+    public static synchronized OutboxDAO outboxDAO() {
+        if (outboxDAO == null) {
+            OutboxDAO impl = isEmbedded() ? new EmbeddedOutboxDAO(EmbeddedDatabase.get()) : new MySqlOutboxDAO();
+            outboxDAO = DaoMetrics.instrument(OutboxDAO.class, impl);
+        }
+        return outboxDAO;
+    }
+
+    public static synchronized SalesReportDAO salesReportDAO() {
+        if (salesReportDAO == null) {
+            SalesReportDAO impl = isEmbedded() ? new EmbeddedSalesReportDAO(EmbeddedDatabase.get()) : new MySqlSalesReportDAO();
+            salesReportDAO = DaoMetrics.instrument(SalesReportDAO.class, impl);
+        }
+        return salesReportDAO;
+    }
+
+    public static synchronized OrderExportDAO orderExportDAO() {
+        if (orderExportDAO == null) {
+            OrderExportDAO impl = isEmbedded() ? new EmbeddedOrderExportDAO(EmbeddedDatabase.get()) : new MySqlOrderExportDAO();
+            orderExportDAO = DaoMetrics.instrument(OrderExportDAO.class, impl);
+        }
+        return orderExportDAO;
+    }
+
+    // The order event log this process writes, for in-process consumers (reader / tail);
+    // null if the relay is off or the log is held by another process
+    public static synchronized EventLog orderEvents() {
+        orderDAO();
+        return orderEvents;
+    }
+
+    private static void startRelay() {
+        try {
+            orderEvents = EventLog.open(Paths.get(EVENTS_DIR), SEGMENT_BYTES);
+        } catch (IOException e) {
+            // e.g. a second instance on this machine: that one relays, this one only writes the outbox
+            System.err.println("[events] not relaying order events: " + e.getMessage());
+            return;
+        }
+        relay = new OutboxRelay(outboxDAO(), orderEvents, POLL_MILLIS);
+        relay.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(relay::close, "outbox-relay-shutdown"));
+    }
+}
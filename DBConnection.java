@@ -1,28 +1,178 @@
+import java.io.IOException;
 import java.sql.*;
+import java.util.Properties;
 
 public class DBConnection {
 
-    public static Connection connection;
+    // Defaults for a local dev database; override with -Ddb.url / -Ddb.user / -Ddb.password
+    private static final String URL = System.getProperty("db.url",
+            "jdbc:mysql://localhost/online_store?serverTimezone=EST");
+    private static final String USER = System.getProperty("db.user", "root");
+    private static final String PASSWORD = System.getProperty("db.password", "@Asghar786");
 
-    // Load driver and create initial connection once
-    public static void connect() {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            connection = DriverManager.getConnection(
-                    "jdbc:mysql://localhost/online_store?serverTimezone=EST",
-                    "root",
-                    "@Asghar786"
-            );
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    // Optional read replica (-Ddb.replica.url); browse and reporting reads go there when it is set
+    private static final String REPLICA_URL = System.getProperty("db.replica.url");
+    private static final String REPLICA_USER = System.getProperty("db.replica.user", USER);
+    private static final String REPLICA_PASSWORD = System.getProperty("db.replica.password", PASSWORD);
+    // after a write, reads stay on the primary this long so replication lag can't hide it
+    private static final long STICKY_MILLIS = Long.getLong("db.replica.stickyMs", 5000L);
+
+    // apply pending migrations/V*.sql before the first connection is handed out (-Ddb.migrate=false to skip)
+    private static final boolean MIGRATE = Boolean.parseBoolean(System.getProperty("db.migrate", "true"));
+
+    // after a failed migration, calls fail with the same error this long before it is tried again
+    private static final long MIGRATE_RETRY_MILLIS = Long.getLong("db.migrate.retryMs", 5000L);
+
+    private static volatile ConnectionPool pool;
+    private static volatile ConnectionPool replica;
+    private static SQLException migrateFailure;
+    private static long migrateFailedAt;
+
+    // Load driver and create the pool once. No pool is created (and so no connection handed out)
+    // until the migrations have been applied.
+    private static synchronized ConnectionPool pool() throws SQLException {
+        if (pool == null) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new RuntimeException(e);
+            }
+            if (MIGRATE) migrate();
+            ConnectionPool.Settings settings = poolSettings();
+            pool = new ConnectionPool("primary", URL, pooledProperties(USER, PASSWORD, settings), settings);
+            Runtime.getRuntime().addShutdownHook(new Thread(pool::close, "db-pool-shutdown"));
+        }
+        return pool;
+    }
+
+    private static synchronized ConnectionPool replica() {
+        if (replica == null) {
+            ConnectionPool.Settings settings = poolSettings();
+            settings.readOnly = true;
+            replica = new ConnectionPool("replica", REPLICA_URL,
+                    pooledProperties(REPLICA_USER, REPLICA_PASSWORD, settings), settings);
+            Runtime.getRuntime().addShutdownHook(new Thread(replica::close, "db-replica-shutdown"));
         }
+        return replica;
+    }
+
+    // Runs on its own connection without a socket timeout: building an index on a large table
+    // can take longer than any DAO call is allowed to. A changed migration script stops startup
+    // (IllegalStateException). Any other failure - a script that fails, the lock held by another
+    // instance still migrating, an unreachable database - is thrown as an SQLException from every
+    // connection request, and migrating is tried again after db.migrate.retryMs.
+    private static void migrate() throws SQLException {
+        if (migrateFailure != null && System.currentTimeMillis() - migrateFailedAt < MIGRATE_RETRY_MILLIS) {
+            throw migrateFailure;
+        }
+        Properties props = connectionProperties(USER, PASSWORD);
+        props.setProperty("socketTimeout", "0");
+        try (Connection conn = DriverManager.getConnection(URL, props)) {
+            new SchemaMigrator(SchemaMigrator.defaultDir()).migrate(conn);
+            migrateFailure = null;
+        } catch (SQLException | IOException e) {
+            System.err.println("[schema] migrations not applied: " + e.getMessage());
+            migrateFailure = new SQLException("Schema migrations not applied: " + e.getMessage(), e);
+            migrateFailedAt = System.currentTimeMillis();
+            throw migrateFailure;
+        }
+    }
+
+    // A connection of its own for long streaming reads (the order export), from the replica when
+    // one is configured. It is not borrowed from the pool, so a dump that runs for minutes neither
+    // ties up a pooled connection nor trips the leak and operation timeouts, and it has no socket
+    // timeout because the reader may pause between rows while the disk catches up. Close it when done.
+    public static Connection getStreamingConnection() throws SQLException {
+        pool(); // driver loaded, migrations applied
+        Properties props = REPLICA_URL == null
+                ? connectionProperties(USER, PASSWORD) : connectionProperties(REPLICA_USER, REPLICA_PASSWORD);
+        props.setProperty("socketTimeout", "0");
+        return DriverManager.getConnection(REPLICA_URL == null ? URL : REPLICA_URL, props);
+    }
+
+    // A primary connection of its own for maintenance that may run longer than a DAO call is
+    // allowed to (SalesReportDAO.rebuild): not pooled, so no operation deadline or query timeout,
+    // and no socket timeout. Close it when done.
+    public static Connection getMaintenanceConnection() throws SQLException {
+        pool(); // driver loaded, migrations applied
+        Properties props = connectionProperties(USER, PASSWORD);
+        props.setProperty("socketTimeout", "0");
+        return DriverManager.getConnection(URL, props);
     }
 
-    // Safe method used by DAOs to always get a live connection
+    static Properties connectionProperties(String user, String password) {
+        Properties props = new Properties();
+        props.setProperty("user", user);
+        props.setProperty("password", password);
+        // bound the socket itself, so a half-dead connection errors out instead of blocking forever
+        props.setProperty("connectTimeout", System.getProperty("db.connectTimeoutMs", "5000"));
+        props.setProperty("socketTimeout", System.getProperty("db.socketTimeoutMs", "30000"));
+        return props;
+    }
+
+    // Pooled connections prepare on the server (useServerPrepStmts), so the parse and plan happen
+    // once per statement and StatementCache saves that round trip on every later call. The
+    // driver's own cache (cachePrepStmts) stays off; StatementCache is the one cache. With the
+    // cache disabled, a server prepare would cost a round trip per call, so client-side
+    // prepares are kept. The unpooled connections above run one-off statements and keep the
+    // client-side default.
+    static Properties pooledProperties(String user, String password, ConnectionPool.Settings settings) {
+        Properties props = connectionProperties(user, password);
+        props.setProperty("useServerPrepStmts", Boolean.toString(settings.statementCacheSize > 0));
+        props.setProperty("cachePrepStmts", "false");
+        return props;
+    }
+
+    static ConnectionPool.Settings poolSettings() {
+        ConnectionPool.Settings s = new ConnectionPool.Settings();
+        s.minSize = Integer.getInteger("db.pool.min", s.minSize);
+        s.maxSize = Integer.getInteger("db.pool.max", s.maxSize);
+        s.borrowTimeoutMillis = Long.getLong("db.pool.borrowTimeoutMs", s.borrowTimeoutMillis);
+        s.idleTimeoutMillis = Long.getLong("db.pool.idleTimeoutMs", s.idleTimeoutMillis);
+        s.leakThresholdMillis = Long.getLong("db.pool.leakThresholdMs", s.leakThresholdMillis);
+        s.statementCacheSize = Integer.getInteger("db.pool.statementCacheSize", s.statementCacheSize);
+        s.keepaliveMillis = Long.getLong("db.pool.keepaliveMs", s.keepaliveMillis);
+        s.queryTimeoutSeconds = Integer.getInteger("db.queryTimeoutSeconds", s.queryTimeoutSeconds);
+        s.operationTimeoutMillis = Long.getLong("db.operationTimeoutMs", s.operationTimeoutMillis);
+        s.breakerFailureThreshold = Integer.getInteger("db.breaker.failures", s.breakerFailureThreshold);
+        s.breakerOpenMillis = Long.getLong("db.breaker.openMs", s.breakerOpenMillis);
+        return s;
+    }
+
+    // Used by DAOs inside try-with-resources; close() hands the connection back to the pool.
+    // Fails immediately with SQLTransientConnectionException while the circuit breaker is open.
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            connect(); // reconnect if needed
+        ConnectionPool p = pool;
+        try {
+            return (p != null ? p : pool()).borrow();
+        } catch (SQLException e) {
+            DaoMetrics.recordSqlError();
+            throw e;
+        }
+    }
+
+    // For read-only DAO methods. Goes to the replica when one is configured, except right after
+    // this application wrote something (e.g. the customer's own checkout), so they always see
+    // their own writes. Falls back to the primary if the replica is unreachable.
+    public static Connection getReadConnection() throws SQLException {
+        if (REPLICA_URL == null) return getConnection();
+        ConnectionPool primary = pool();
+        if (System.currentTimeMillis() - primary.getLastWriteMillis() < STICKY_MILLIS) {
+            return getConnection();
+        }
+        try {
+            return replica().borrow();
+        } catch (SQLException e) {
+            return getConnection();
         }
-        return connection;
+    }
+
+    public static ConnectionPool.Stats getPoolStats() throws SQLException {
+        return pool().getStats();
+    }
+
+    // null when no replica is configured
+    public static ConnectionPool.Stats getReplicaStats() {
+        return REPLICA_URL == null ? null : replica().getStats();
     }
 }
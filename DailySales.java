@@ -0,0 +1,28 @@
+// DailySales.java
+import java.time.LocalDate;
+
+// One day of SalesReportDAO.dailySales (cancelled orders not counted); revenue is net, i.e. the
+// order totals after coupons
+public class DailySales {
+    private LocalDate day;
+    private long orders;
+    private long units;
+    private long revenueCents;
+
+    public LocalDate getDay() { return day; }
+    public void setDay(LocalDate day) { this.day = day; }
+
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public long getRevenueCents() { return revenueCents; }
+    public void setRevenueCents(long revenueCents) { this.revenueCents = revenueCents; }
+
+    // Average order value in cents, rounded half up
+    public long getAverageOrderCents() {
+        return orders == 0 ? 0 : (revenueCents + orders / 2) / orders;
+    }
+}
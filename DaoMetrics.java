@@ -0,0 +1,145 @@
+// DaoMetrics.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Per-DAO-method instrumentation.
+//
+// DAOFactory wraps every DAO in a proxy from instrument(). Each call records its latency in a
+// LatencyHistogram plus call, error and row counters. Run with -Dstore.metrics.intervalSeconds=60
+// (default 0 = off) to have a background thread print a snapshot to stderr that often and once
+// more at shutdown; snapshot() can be called at any time either way.
+public class DaoMetrics {
+
+    private static final long INTERVAL_SECONDS = Long.getLong("store.metrics.intervalSeconds", 0L);
+
+    private static final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+    private static final List<Supplier<String>> reports = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<MethodStats> current = new ThreadLocal<>();
+    private static final long startNanos = System.nanoTime();
+    private static volatile long lastDumpNanos = startNanos;
+
+    static {
+        if (INTERVAL_SECONDS > 0) {
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "dao-metrics");
+                t.setDaemon(true);
+                return t;
+            });
+            dumper.scheduleAtFixedRate(() -> System.err.print(snapshot()),
+                    INTERVAL_SECONDS, INTERVAL_SECONDS, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.err.print(snapshot()), "dao-metrics-final"));
+        }
+    }
+
+    // Counters for one DAO method
+    public static class MethodStats {
+        final String name;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder calls = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        long callsAtLastDump;
+
+        MethodStats(String name) {
+            this.name = name;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T instrument(Class<T> iface, T target) {
+        String prefix = iface.getSimpleName() + ".";
+        InvocationHandler handler = new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getDeclaringClass() == Object.class) {
+                    return method.invoke(target, args);
+                }
+                MethodStats s = stats.computeIfAbsent(prefix + method.getName(), MethodStats::new);
+                MethodStats outer = current.get();
+                current.set(s);
+                long start = System.nanoTime();
+                try {
+                    Object result = method.invoke(target, args);
+                    s.rows.add(rowsIn(result));
+                    return result;
+                } catch (InvocationTargetException e) {
+                    s.errors.increment();
+                    throw e.getCause();
+                } finally {
+                    s.latency.record(System.nanoTime() - start);
+                    s.calls.increment();
+                    current.set(outer);
+                }
+            }
+        };
+        return (T) Proxy.newProxyInstance(DaoMetrics.class.getClassLoader(), new Class<?>[]{iface}, handler);
+    }
+
+    // Called from the JDBC layer: the DAOs swallow SQLExceptions, so count them where they happen
+    public static void recordSqlError() {
+        MethodStats s = current.get();
+        if (s != null) s.errors.increment();
+    }
+
+    // Extra one-line reports (cache hit ratios etc.) printed under the table
+    public static void addReport(Supplier<String> report) {
+        reports.add(report);
+    }
+
+    // Name of the DAO method running on this thread ("OrderDAO.placeOrder"), or null
+    public static String currentMethod() {
+        MethodStats s = current.get();
+        return s != null ? s.name : null;
+    }
+
+    // Rows a call returned: list and map sizes, the rows of an OrderPage, the lines of an OrderDetail
+    private static long rowsIn(Object result) {
+        if (result instanceof Collection) return ((Collection<?>) result).size();
+        if (result instanceof Map) return ((Map<?, ?>) result).size();
+        if (result instanceof OrderPage) return ((OrderPage) result).getRows().size();
+        if (result instanceof OrderDetail) return ((OrderDetail) result).getLines().size();
+        if (result == null || result instanceof Boolean || result instanceof Number) return 0;
+        return 1;
+    }
+
+    // Text table of every method seen so far; rate is calls per second since the previous snapshot
+    public static synchronized String snapshot() {
+        long now = System.nanoTime();
+        double intervalSec = Math.max(1e-9, (now - lastDumpNanos) / 1e9);
+        lastDumpNanos = now;
+
+        List<MethodStats> all = new ArrayList<>(stats.values());
+        all.sort((a, b) -> a.name.compareTo(b.name));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("---- DAO metrics (uptime %ds) ----%n", (now - startNanos) / 1_000_000_000L));
+        sb.append(String.format("%-45s %9s %8s %7s %9s %9s %9s %9s %9s%n",
+                "method", "calls", "rate/s", "errors", "rows", "p50 ms", "p99 ms", "p999 ms", "max ms"));
+        for (MethodStats s : all) {
+            long calls = s.calls.sum();
+            double rate = (calls - s.callsAtLastDump) / intervalSec;
+            s.callsAtLastDump = calls;
+            sb.append(String.format("%-45s %9d %8.1f %7d %9d %9.3f %9.3f %9.3f %9.3f%n",
+                    s.name, calls, rate, s.errors.sum(), s.rows.sum(),
+                    s.latency.percentile(50) / 1e6, s.latency.percentile(99) / 1e6,
+                    s.latency.percentile(99.9) / 1e6, s.latency.getMax() / 1e6));
+        }
+        for (Supplier<String> report : reports) {
+            sb.append(report.get()).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+}
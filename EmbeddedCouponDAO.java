@@ -0,0 +1,52 @@
+// EmbeddedCouponDAO.java
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmbeddedCouponDAO implements CouponDAO {
+
+    private static final String COUPONS = EmbeddedSchema.Coupons.TABLE;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedCouponDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public boolean createCoupon(Coupon c) {
+        Object[] row = {null, c.getCode(), c.getDescription(), c.getDiscountType(), c.getDiscountHundredths(),
+                null, null, true};
+        try {
+            c.setCouponId(db.write(tx -> tx.insert(COUPONS, row)));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public Coupon findByCode(String code) {
+        return db.read(() -> {
+            Object[] r = db.table(COUPONS).uniqueIndex("code").find(code);
+            return r != null && (Boolean) r[EmbeddedSchema.Coupons.ACTIVE] ? mapRowToCoupon(r) : null;
+        });
+    }
+
+    public List<Coupon> listAllCoupons() {
+        return db.read(() -> {
+            List<Coupon> list = new ArrayList<>();
+            for (Object[] r : db.table(COUPONS).all()) list.add(mapRowToCoupon(r));
+            list.sort((a, b) -> Integer.compare(b.getCouponId(), a.getCouponId()));
+            return list;
+        });
+    }
+
+    static Coupon mapRowToCoupon(Object[] r) {
+        Coupon c = new Coupon();
+        c.setCouponId((Integer) r[EmbeddedSchema.Coupons.ID]);
+        c.setCode((String) r[EmbeddedSchema.Coupons.CODE]);
+        c.setDescription((String) r[EmbeddedSchema.Coupons.DESCRIPTION]);
+        c.setDiscountType((String) r[EmbeddedSchema.Coupons.DISCOUNT_TYPE]);
+        c.setDiscountHundredths(EmbeddedSchema.cents(r[EmbeddedSchema.Coupons.DISCOUNT_VALUE]));
+        return c;
+    }
+}
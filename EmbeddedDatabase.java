@@ -0,0 +1,192 @@
+// EmbeddedDatabase.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// In-process storage engine used when the app runs with -Dstore.engine=embedded.
+//
+// Tables mirror doxey.sql and live entirely in memory with hash indexes for the UNIQUE
+// columns and sorted indexes for the ordered lookups the DAOs do. Durability comes from
+// WriteAheadLog: every write transaction is logged as one frame and the caller returns
+// only once that frame has been fsynced (batched with other concurrent commits).
+// On startup the log is replayed; if it has grown well past the live data it is compacted.
+// If the log ever fails to flush, the engine stops: the in-memory tables may then hold changes
+// that will not survive a restart, so every later read and write throws until the process is
+// restarted and the log replayed.
+public class EmbeddedDatabase {
+
+    private static final String DIR = System.getProperty("store.embedded.dir", "data");
+    private static final long FLUSH_MILLIS = Long.getLong("store.wal.flushMillis", 0L);
+
+    private static EmbeddedDatabase instance;
+
+    private final Path walPath;
+    private final Map<String, EmbeddedTable> tables = new LinkedHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private WriteAheadLog wal;
+
+    // Thrown for UNIQUE / foreign key violations, like the SQLException MySQL would raise
+    public static class ConstraintViolation extends RuntimeException {
+        public ConstraintViolation(String message) {
+            super(message);
+        }
+    }
+
+    public static synchronized EmbeddedDatabase get() {
+        if (instance == null) {
+            instance = new EmbeddedDatabase(Paths.get(DIR, "store.wal"));
+            Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "embedded-db-shutdown"));
+        }
+        return instance;
+    }
+
+    public EmbeddedDatabase(Path walPath) {
+        this.walPath = walPath;
+        EmbeddedSchema.create(this);
+        try {
+            wal = new WriteAheadLog(walPath, FLUSH_MILLIS);
+            int frames = wal.replay(this::redo);
+            if (frames == 0) {
+                EmbeddedSchema.seed(this);
+            } else if (frames > 1000 && wal.size() > 4 * estimatedLiveBytes()) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open embedded store at " + walPath, e);
+        }
+    }
+
+    void defineTable(EmbeddedTable t) {
+        tables.put(t.getName(), t);
+    }
+
+    public EmbeddedTable table(String name) {
+        EmbeddedTable t = tables.get(name);
+        if (t == null) throw new IllegalArgumentException("No table " + name);
+        return t;
+    }
+
+    // Runs a read-only lookup under the shared lock
+    public <T> T read(Supplier<T> work) {
+        lock.readLock().lock();
+        try {
+            wal.checkHealthy();
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs a write transaction. Changes are applied immediately under the exclusive lock and
+    // undone if the work throws or the log has already failed; on success they are logged and
+    // the call waits for the fsync. A failed fsync stops the engine (see the class comment),
+    // since the changes were already visible and can't be taken back from other readers.
+    public <T> T write(Function<Tx, T> work) {
+        Tx tx = new Tx();
+        long seq = -1;
+        lock.writeLock().lock();
+        try {
+            wal.checkHealthy();
+            T result = work.apply(tx);
+            if (!tx.ops.isEmpty()) seq = wal.append(tx.ops);
+            return result;
+        } catch (RuntimeException e) {
+            tx.rollback();
+            throw e;
+        } finally {
+            lock.writeLock().unlock();
+            // wait outside the lock so other writers can join the same fsync batch
+            if (seq > 0) wal.awaitDurable(seq);
+        }
+    }
+
+    private void redo(WriteAheadLog.Op op) {
+        EmbeddedTable t = table(op.table);
+        if (op.type == WriteAheadLog.DELETE) {
+            t.remove(op.pk);
+        } else {
+            t.put(op.row);
+        }
+    }
+
+    private long estimatedLiveBytes() {
+        long rows = 0;
+        for (EmbeddedTable t : tables.values()) rows += t.size();
+        return Math.max(64 * 1024, rows * 128);
+    }
+
+    private void compact() throws IOException {
+        List<WriteAheadLog.Op> snapshot = new ArrayList<>();
+        for (EmbeddedTable t : tables.values()) {
+            for (Object[] r : t.all()) {
+                snapshot.add(new WriteAheadLog.Op(WriteAheadLog.INSERT, t.getName(), (Integer) r[0], r));
+            }
+        }
+        wal.close();
+        WriteAheadLog.writeCompacted(walPath, snapshot);
+        wal = new WriteAheadLog(walPath, FLUSH_MILLIS);
+        wal.replay(op -> { }); // positions the channel at the end
+    }
+
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (wal != null) wal.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Write transaction handle. Only valid inside write(); keeps an undo list for rollback.
+    public class Tx {
+        private final List<WriteAheadLog.Op> ops = new ArrayList<>();
+        private final Deque<Runnable> undo = new ArrayDeque<>();
+
+        // Inserts a row; a null primary key gets the next AUTO_INCREMENT value
+        public int insert(String table, Object[] row) {
+            EmbeddedTable t = table(table);
+            if (row.length != t.columnCount()) {
+                throw new IllegalArgumentException(table + " expects " + t.columnCount() + " columns");
+            }
+            if (row[0] == null) row[0] = t.allocateId();
+            int pk = (Integer) row[0];
+            if (t.get(pk) != null) throw new ConstraintViolation("Duplicate primary key " + pk + " in " + table);
+            t.checkUnique(row, null);
+            t.put(row);
+            undo.push(() -> t.remove(pk));
+            ops.add(new WriteAheadLog.Op(WriteAheadLog.INSERT, table, pk, row));
+            return pk;
+        }
+
+        // Replaces the row with the same primary key
+        public void update(String table, Object[] row) {
+            EmbeddedTable t = table(table);
+            int pk = (Integer) row[0];
+            Object[] old = t.get(pk);
+            if (old == null) throw new IllegalArgumentException("No row " + pk + " in " + table);
+            t.checkUnique(row, old);
+            t.put(row);
+            undo.push(() -> t.put(old));
+            ops.add(new WriteAheadLog.Op(WriteAheadLog.UPDATE, table, pk, row));
+        }
+
+        public boolean delete(String table, int pk) {
+            EmbeddedTable t = table(table);
+            Object[] old = t.remove(pk);
+            if (old == null) return false;
+            undo.push(() -> t.put(old));
+            ops.add(new WriteAheadLog.Op(WriteAheadLog.DELETE, table, pk, null));
+            return true;
+        }
+
+        private void rollback() {
+            while (!undo.isEmpty()) undo.pop().run();
+            ops.clear();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+// EmbeddedOrderDAO.java
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class EmbeddedOrderDAO implements OrderDAO {
+
+    private static final String ORDERS = EmbeddedSchema.Orders.TABLE;
+    private static final String ITEMS = EmbeddedSchema.OrderItems.TABLE;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedOrderDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public int placeOrder(int customerId, Integer couponId, List<OrderItem> lines) {
+        if (lines.isEmpty()) return -1;
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        long subtotal = 0;
+        for (OrderItem it : lines) {
+            if (it.getQuantity() <= 0) return -1;
+            it.setLineTotalCents(Money.times(it.getUnitPriceCents(), it.getQuantity()));
+            subtotal = Math.addExact(subtotal, it.getLineTotalCents());
+            quantities.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+        }
+        long linesTotal = subtotal;
+
+        try {
+            int orderId = db.write(tx -> {
+                if (db.table(EmbeddedSchema.Users.TABLE).get(customerId) == null) {
+                    throw new EmbeddedDatabase.ConstraintViolation("fk_orders_customer: no user " + customerId);
+                }
+                long total = linesTotal;
+                if (couponId != null) {
+                    Object[] c = db.table(EmbeddedSchema.Coupons.TABLE).get(couponId);
+                    if (c == null) throw new EmbeddedDatabase.ConstraintViolation("fk_orders_coupon: no coupon " + couponId);
+                    total = Money.afterDiscount(total, (String) c[EmbeddedSchema.Coupons.DISCOUNT_TYPE],
+                            EmbeddedSchema.cents(c[EmbeddedSchema.Coupons.DISCOUNT_VALUE]));
+                }
+                // checks every product before changing any, so a sold-out line leaves nothing to undo
+                if (!EmbeddedProductDAO.decrementStock(db, tx, quantities)) return -1;
+
+                long now = System.currentTimeMillis();
+                Object[] order = new Object[]{null, customerId, couponId, "PENDING", total, now, now};
+                int id = tx.insert(ORDERS, order);
+                for (OrderItem it : lines) {
+                    tx.insert(ITEMS, new Object[]{null, id, it.getProductId(), it.getQuantity(),
+                            it.getUnitPriceCents(), it.getLineTotalCents()});
+                }
+                EmbeddedSalesReportDAO.addOrder(db, tx, order, lines);
+                EmbeddedOutboxDAO.append(tx, id, OrderEvent.PLACED, OrderEvent.placed(customerId, couponId, total, lines));
+                return id;
+            });
+            if (orderId > 0) {
+                for (OrderItem it : lines) it.setOrderId(orderId);
+            }
+            return orderId;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    public OrderDetail getOrderDetails(int orderId) {
+        return db.read(() -> {
+            Object[] order = db.table(ORDERS).get(orderId);
+            if (order == null) return null;
+
+            EmbeddedTable products = db.table(EmbeddedSchema.Products.TABLE);
+            List<OrderDetail.Line> lines = new ArrayList<>();
+            for (Object[] it : db.table(ITEMS).sortedIndex("order").equalTo(orderId)) {
+                int productId = (Integer) it[EmbeddedSchema.OrderItems.PRODUCT_ID];
+                Object[] p = products.get(productId);
+                lines.add(new OrderDetail.Line(productId,
+                        p == null ? null : (String) p[EmbeddedSchema.Products.NAME],
+                        (Integer) it[EmbeddedSchema.OrderItems.QUANTITY],
+                        EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.UNIT_PRICE]),
+                        EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.LINE_TOTAL])));
+            }
+
+            Integer couponId = (Integer) order[EmbeddedSchema.Orders.COUPON_ID];
+            Object[] c = couponId == null ? null : db.table(EmbeddedSchema.Coupons.TABLE).get(couponId);
+            if (c == null) return new OrderDetail(orderId, lines, null, null, 0);
+            return new OrderDetail(orderId, lines, (String) c[EmbeddedSchema.Coupons.CODE],
+                    (String) c[EmbeddedSchema.Coupons.DISCOUNT_TYPE],
+                    EmbeddedSchema.cents(c[EmbeddedSchema.Coupons.DISCOUNT_VALUE]));
+        });
+    }
+
+    // Walks the created_at index (or customer_created for one customer) newest first from the
+    // keyset position, filters row by row and stops once the page is full
+    public OrderPage findOrders(OrderQuery q) {
+        return db.read(() -> {
+            OrderPage page = new OrderPage();
+            EmbeddedTable users = db.table(EmbeddedSchema.Users.TABLE);
+
+            // upper bound: the keyset position or createdTo, whichever comes first
+            List<Object> high = new ArrayList<>();
+            if (q.getCreatedTo() != null) high.add(q.getCreatedTo() - 1);
+            if (q.getAfterCreatedAt() != null && (q.getCreatedTo() == null || q.getAfterCreatedAt() <= q.getCreatedTo() - 1)) {
+                high.clear();
+                high.add(q.getAfterCreatedAt());
+                high.add(q.getAfterOrderId() - 1);
+            }
+            List<Object> low = new ArrayList<>();
+            if (q.getCreatedFrom() != null) low.add(q.getCreatedFrom());
+
+            EmbeddedTable.SortedIndex index = db.table(ORDERS).sortedIndex("created");
+            if (q.getCustomerId() != null) {
+                index = db.table(ORDERS).sortedIndex("customer_created");
+                high.add(0, q.getCustomerId());
+                low.add(0, q.getCustomerId());
+            }
+            String name = q.getCustomerName() == null ? null : q.getCustomerName().toLowerCase();
+
+            for (Object[] o : index.scan(low.toArray(), high.toArray(), true)) {
+                if (q.getStatus() != null && !q.getStatus().equals(o[EmbeddedSchema.Orders.STATUS])) continue;
+                long total = EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT]);
+                if (q.getMinTotalCents() != null && total < q.getMinTotalCents()) continue;
+                if (q.getMaxTotalCents() != null && total > q.getMaxTotalCents()) continue;
+                Object[] u = users.get((Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID]);
+                if (u == null) continue;
+                String fullName = (String) u[EmbeddedSchema.Users.FULL_NAME];
+                if (name != null && !fullName.toLowerCase().startsWith(name)) continue;
+
+                if (page.getRows().size() == q.getLimit()) {
+                    page.setHasMore(true);
+                    break;
+                }
+                OrderSummary s = mapRowToSummary(o);
+                s.setCustomerName(fullName);
+                page.getRows().add(s);
+            }
+            return page;
+        });
+    }
+
+    public List<OrderSummary> listOrdersForCustomer(int customerId) {
+        return db.read(() -> {
+            List<OrderSummary> list = new ArrayList<>();
+            for (Object[] o : db.table(ORDERS).sortedIndex("customer_created")
+                    .range(new Object[]{customerId}, new Object[]{customerId}, true, Integer.MAX_VALUE)) {
+                list.add(mapRowToSummary(o));
+            }
+            return list;
+        });
+    }
+
+    private static OrderSummary mapRowToSummary(Object[] o) {
+        OrderSummary s = new OrderSummary();
+        s.setOrderId((Integer) o[EmbeddedSchema.Orders.ID]);
+        s.setCustomerId((Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID]);
+        s.setStatus((String) o[EmbeddedSchema.Orders.STATUS]);
+        s.setTotalCents(EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT]));
+        s.setCreatedAt((Long) o[EmbeddedSchema.Orders.CREATED_AT]);
+        return s;
+    }
+
+    public boolean cancelOrder(int orderId, int customerId) {
+        try {
+            return db.write(tx -> {
+                Object[] o = db.table(ORDERS).get(orderId);
+                if (o == null || (Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID] != customerId) return false;
+                appendRemoved(tx, o, OrderEvent.CANCELLED);
+                return deleteOrderRows(db, tx, orderId);
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean changeOrderStatus(int orderId, String status) {
+        return changeOrderStatus(List.of(orderId), status) > 0;
+    }
+
+    public int changeOrderStatus(Collection<Integer> orderIds, String status) {
+        if (!OrderStatus.isValid(status)) {
+            new IllegalArgumentException("Data truncated for column 'status': " + status).printStackTrace();
+            return -1;
+        }
+        try {
+            return db.write(tx -> {
+                int changed = 0;
+                long now = System.currentTimeMillis();
+                for (int id : new LinkedHashSet<>(orderIds)) {
+                    Object[] o = db.table(ORDERS).get(id);
+                    if (o == null) continue;
+                    String from = (String) o[EmbeddedSchema.Orders.STATUS];
+                    if (!OrderStatus.canChange(from, status)) continue;
+                    EmbeddedOutboxDAO.append(tx, id, OrderEvent.STATUS_CHANGED, OrderEvent.statusChanged(
+                            (Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID], from, status,
+                            EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT])));
+                    // a cancelled order no longer counts as a sale
+                    if (OrderStatus.CANCELLED.equals(status)) EmbeddedSalesReportDAO.removeOrder(db, tx, o);
+                    o = o.clone();
+                    o[EmbeddedSchema.Orders.STATUS] = status;
+                    o[EmbeddedSchema.Orders.UPDATED_AT] = now;
+                    tx.update(ORDERS, o);
+                    changed++;
+                }
+                return changed;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // ADMIN — Delete an entire order (items removed like the FK CASCADE)
+    public boolean deleteOrder(int orderId) {
+        try {
+            return db.write(tx -> {
+                Object[] o = db.table(ORDERS).get(orderId);
+                if (o == null) return false;
+                appendRemoved(tx, o, OrderEvent.DELETED);
+                return deleteOrderRows(db, tx, orderId);
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public int deleteOrders(Collection<Integer> orderIds) {
+        try {
+            return db.write(tx -> {
+                int deleted = 0;
+                for (int id : new LinkedHashSet<>(orderIds)) {
+                    Object[] o = db.table(ORDERS).get(id);
+                    if (o == null) continue;
+                    appendRemoved(tx, o, OrderEvent.DELETED);
+                    if (deleteOrderRows(db, tx, id)) deleted++;
+                }
+                return deleted;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    static void appendRemoved(EmbeddedDatabase.Tx tx, Object[] o, String type) {
+        EmbeddedOutboxDAO.append(tx, (Integer) o[EmbeddedSchema.Orders.ID], type, OrderEvent.removed(
+                (Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID], (String) o[EmbeddedSchema.Orders.STATUS],
+                EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT])));
+    }
+
+    // Removes an order and its lines (and its share of the sales totals) inside an open transaction
+    static boolean deleteOrderRows(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, int orderId) {
+        Object[] o = db.table(ORDERS).get(orderId);
+        if (o == null) return false;
+        EmbeddedSalesReportDAO.removeOrder(db, tx, o);
+        for (Object[] it : db.table(ITEMS).sortedIndex("order").equalTo(orderId)) {
+            tx.delete(ITEMS, (Integer) it[EmbeddedSchema.OrderItems.ID]);
+        }
+        return tx.delete(ORDERS, orderId);
+    }
+}
@@ -0,0 +1,93 @@
+// EmbeddedOrderExportDAO.java
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class EmbeddedOrderExportDAO implements OrderExportDAO {
+
+    // order ids per read lock, so a long export never holds writers back for more than a moment
+    private static final int ORDERS_PER_READ = 500;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedOrderExportDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    // Walks the order ids in blocks, each under its own read lock. Unlike the MySQL dump this is
+    // not one snapshot: an order placed or deleted during the export may or may not be in it.
+    public long exportOrders(RowHandler handler) throws IOException {
+        OrderExportRow r = new OrderExportRow();
+        EmbeddedTable orders = db.table(EmbeddedSchema.Orders.TABLE);
+        int maxId = db.read(() -> {
+            int max = 0;
+            for (Object[] o : orders.all()) max = Math.max(max, (Integer) o[EmbeddedSchema.Orders.ID]);
+            return max;
+        });
+
+        long rows = 0;
+        try {
+            for (int from = 1; from <= maxId; from += ORDERS_PER_READ) {
+                int first = from;
+                rows += db.read(() -> exportBlock(first, Math.min(first + ORDERS_PER_READ, maxId + 1), r, handler));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return rows;
+    }
+
+    private long exportBlock(int fromId, int toId, OrderExportRow r, RowHandler handler) {
+        EmbeddedTable orders = db.table(EmbeddedSchema.Orders.TABLE);
+        EmbeddedTable users = db.table(EmbeddedSchema.Users.TABLE);
+        EmbeddedTable coupons = db.table(EmbeddedSchema.Coupons.TABLE);
+        EmbeddedTable products = db.table(EmbeddedSchema.Products.TABLE);
+        EmbeddedTable.SortedIndex items = db.table(EmbeddedSchema.OrderItems.TABLE).sortedIndex("order");
+
+        long rows = 0;
+        try {
+            for (int id = fromId; id < toId; id++) {
+                Object[] o = orders.get(id);
+                if (o == null) continue;
+                r.setOrderId(id);
+                r.setCreatedAt((Long) o[EmbeddedSchema.Orders.CREATED_AT]);
+                r.setCustomerId((Integer) o[EmbeddedSchema.Orders.CUSTOMER_ID]);
+                Object[] u = users.get(r.getCustomerId());
+                r.setCustomerName(u == null ? null : (String) u[EmbeddedSchema.Users.FULL_NAME]);
+                r.setStatus((String) o[EmbeddedSchema.Orders.STATUS]);
+                r.setTotalCents(EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT]));
+
+                Integer couponId = (Integer) o[EmbeddedSchema.Orders.COUPON_ID];
+                Object[] c = couponId == null ? null : coupons.get(couponId);
+                r.setCouponCode(c == null ? null : (String) c[EmbeddedSchema.Coupons.CODE]);
+                r.setDiscountType(c == null ? null : (String) c[EmbeddedSchema.Coupons.DISCOUNT_TYPE]);
+                r.setDiscountValue(c == null ? 0 : EmbeddedSchema.cents(c[EmbeddedSchema.Coupons.DISCOUNT_VALUE]));
+
+                boolean any = false;
+                for (Object[] it : items.scan(new Object[]{id}, new Object[]{id}, false)) {
+                    int productId = (Integer) it[EmbeddedSchema.OrderItems.PRODUCT_ID];
+                    Object[] p = products.get(productId);
+                    r.setProductId(productId);
+                    r.setProductName(p == null ? null : (String) p[EmbeddedSchema.Products.NAME]);
+                    r.setQuantity((Integer) it[EmbeddedSchema.OrderItems.QUANTITY]);
+                    r.setUnitPriceCents(EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.UNIT_PRICE]));
+                    r.setLineTotalCents(EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.LINE_TOTAL]));
+                    handler.row(r);
+                    rows++;
+                    any = true;
+                }
+                if (!any) {
+                    r.setProductId(0);
+                    r.setProductName(null);
+                    r.setQuantity(0);
+                    r.setUnitPriceCents(0);
+                    r.setLineTotalCents(0);
+                    handler.row(r);
+                    rows++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,49 @@
+// EmbeddedOutboxDAO.java
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class EmbeddedOutboxDAO implements OutboxDAO {
+
+    private static final String OUTBOX = EmbeddedSchema.OrderOutbox.TABLE;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedOutboxDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public List<OrderEvent> readOutbox(int limit) {
+        return db.read(() -> {
+            List<OrderEvent> list = new ArrayList<>();
+            for (Object[] r : db.table(OUTBOX).sortedIndex("id").range(new Object[0], new Object[0], false, limit)) {
+                OrderEvent e = new OrderEvent();
+                e.setOutboxId((Integer) r[EmbeddedSchema.OrderOutbox.ID]);
+                e.setOrderId((Integer) r[EmbeddedSchema.OrderOutbox.ORDER_ID]);
+                e.setType((String) r[EmbeddedSchema.OrderOutbox.EVENT_TYPE]);
+                e.setPayload((String) r[EmbeddedSchema.OrderOutbox.PAYLOAD]);
+                e.setCreatedAt((Long) r[EmbeddedSchema.OrderOutbox.CREATED_AT]);
+                list.add(e);
+            }
+            return list;
+        });
+    }
+
+    public boolean deleteOutbox(Collection<Long> outboxIds) {
+        try {
+            db.write(tx -> {
+                for (long id : outboxIds) tx.delete(OUTBOX, (int) id);
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // Appends an event inside an order transaction (see EmbeddedOrderDAO)
+    static void append(EmbeddedDatabase.Tx tx, int orderId, String type, String payload) {
+        tx.insert(OUTBOX, new Object[]{null, orderId, type, payload, System.currentTimeMillis()});
+    }
+}
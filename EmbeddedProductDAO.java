@@ -0,0 +1,179 @@
+// EmbeddedProductDAO.java
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EmbeddedProductDAO implements ProductDAO {
+
+    private static final String PRODUCTS = EmbeddedSchema.Products.TABLE;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedProductDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public boolean createProduct(Product p) {
+        String imgPath = p.getImagePath();
+        if (imgPath == null || imgPath.isEmpty()) {
+            imgPath = "images/products/placeholder.png";
+        }
+
+        Object[] row = {null, p.getName(), p.getDescription(), p.getPriceCents(), p.getStockQuantity(), true, imgPath};
+        try {
+            p.setProductId(db.write(tx -> tx.insert(PRODUCTS, row)));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean createProducts(List<Product> products) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Product p : products) {
+            String imgPath = p.getImagePath();
+            if (imgPath == null || imgPath.isEmpty()) {
+                imgPath = "images/products/placeholder.png";
+            }
+            rows.add(new Object[]{null, p.getName(), p.getDescription(), p.getPriceCents(), p.getStockQuantity(), true, imgPath});
+        }
+        try {
+            List<Integer> ids = db.write(tx -> {
+                List<Integer> generated = new ArrayList<>();
+                for (Object[] row : rows) generated.add(tx.insert(PRODUCTS, row));
+                return generated;
+            });
+            for (int i = 0; i < products.size(); i++) products.get(i).setProductId(ids.get(i));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public Product findById(int id) {
+        return db.read(() -> {
+            Object[] r = db.table(PRODUCTS).get(id);
+            return r != null && (Boolean) r[EmbeddedSchema.Products.ACTIVE] ? mapRowToProduct(r) : null;
+        });
+    }
+
+    public Map<Integer, Product> findByIds(Collection<Integer> ids) {
+        return db.read(() -> {
+            Map<Integer, Product> map = new HashMap<>();
+            for (Integer id : ids) {
+                Object[] r = db.table(PRODUCTS).get(id);
+                if (r != null) map.put(id, mapRowToProduct(r));
+            }
+            return map;
+        });
+    }
+
+    public List<Product> listActiveProducts() {
+        return db.read(() -> {
+            List<Product> list = new ArrayList<>();
+            for (Object[] r : db.table(PRODUCTS).sortedIndex("active_id")
+                    .range(new Object[]{true}, new Object[]{true}, true, Integer.MAX_VALUE)) {
+                list.add(mapRowToProduct(r));
+            }
+            return list;
+        });
+    }
+
+    public List<ProductSummary> listActiveProducts(int afterId, int limit) {
+        Object[] high = afterId > 0 ? new Object[]{true, afterId - 1} : new Object[]{true};
+        return db.read(() -> {
+            List<ProductSummary> list = new ArrayList<>();
+            for (Object[] r : db.table(PRODUCTS).sortedIndex("active_id")
+                    .range(new Object[]{true}, high, true, limit)) {
+                ProductSummary p = new ProductSummary();
+                p.setProductId((Integer) r[EmbeddedSchema.Products.ID]);
+                p.setName((String) r[EmbeddedSchema.Products.NAME]);
+                p.setPriceCents(EmbeddedSchema.cents(r[EmbeddedSchema.Products.PRICE]));
+                p.setStockQuantity((Integer) r[EmbeddedSchema.Products.STOCK_QUANTITY]);
+                p.setImagePath((String) r[EmbeddedSchema.Products.IMAGE_PATH]);
+                list.add(p);
+            }
+            return list;
+        });
+    }
+
+    public String findDescription(int productId) {
+        return db.read(() -> {
+            Object[] r = db.table(PRODUCTS).get(productId);
+            return r != null ? (String) r[EmbeddedSchema.Products.DESCRIPTION] : null;
+        });
+    }
+
+    public boolean updateStock(int productId, int newStock) {
+        return setColumn(productId, EmbeddedSchema.Products.STOCK_QUANTITY, newStock);
+    }
+
+    public boolean tryDecrementStock(int productId, int qty) {
+        return tryDecrementStock(Collections.singletonMap(productId, qty));
+    }
+
+    public boolean tryDecrementStock(Map<Integer, Integer> quantities) {
+        try {
+            return db.write(tx -> decrementStock(db, tx, quantities));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public void stockDecremented(Map<Integer, Integer> quantities) {
+        // the change already went through the caller's write transaction
+    }
+
+    // Checks every line first, then applies them all; false (and no change) if any is short
+    static boolean decrementStock(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, Map<Integer, Integer> quantities) {
+        EmbeddedTable products = db.table(PRODUCTS);
+        for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+            Object[] r = products.get(e.getKey());
+            if (r == null || e.getValue() <= 0 || (Integer) r[EmbeddedSchema.Products.STOCK_QUANTITY] < e.getValue()) return false;
+        }
+        for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+            Object[] r = products.get(e.getKey()).clone();
+            r[EmbeddedSchema.Products.STOCK_QUANTITY] = (Integer) r[EmbeddedSchema.Products.STOCK_QUANTITY] - e.getValue();
+            tx.update(PRODUCTS, r);
+        }
+        return true;
+    }
+
+    public boolean deleteProduct(int productId) {
+        return setColumn(productId, EmbeddedSchema.Products.ACTIVE, false);
+    }
+
+    private boolean setColumn(int productId, int col, Object value) {
+        try {
+            return db.write(tx -> {
+                Object[] r = db.table(PRODUCTS).get(productId);
+                if (r == null) return false;
+                r = r.clone();
+                r[col] = value;
+                tx.update(PRODUCTS, r);
+                return true;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    static Product mapRowToProduct(Object[] r) {
+        Product p = new Product();
+        p.setProductId((Integer) r[EmbeddedSchema.Products.ID]);
+        p.setName((String) r[EmbeddedSchema.Products.NAME]);
+        p.setDescription((String) r[EmbeddedSchema.Products.DESCRIPTION]);
+        p.setPriceCents(EmbeddedSchema.cents(r[EmbeddedSchema.Products.PRICE]));
+        p.setStockQuantity((Integer) r[EmbeddedSchema.Products.STOCK_QUANTITY]);
+        p.setActive((Boolean) r[EmbeddedSchema.Products.ACTIVE]);
+        p.setImagePath((String) r[EmbeddedSchema.Products.IMAGE_PATH]);
+        return p;
+    }
+}
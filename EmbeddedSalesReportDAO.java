@@ -0,0 +1,170 @@
+// EmbeddedSalesReportDAO.java
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class EmbeddedSalesReportDAO implements SalesReportDAO {
+
+    private static final String DAILY = EmbeddedSchema.SalesDaily.TABLE;
+    private static final String PRODUCTS = EmbeddedSchema.SalesByProduct.TABLE;
+    private static final int BACKFILL_CHUNK = Integer.getInteger("store.backfill.chunk", 20_000);
+    private static final int BACKFILL_THREADS = Integer.getInteger("store.backfill.threads",
+            Runtime.getRuntime().availableProcessors());
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedSalesReportDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public List<DailySales> dailySales(LocalDate from, LocalDate to) {
+        return db.read(() -> {
+            List<DailySales> list = new ArrayList<>();
+            for (Object[] r : db.table(DAILY).sortedIndex("day").scan(new Object[]{(int) from.toEpochDay()},
+                    new Object[]{(int) to.toEpochDay()}, false)) {
+                long orders = (Long) r[EmbeddedSchema.SalesDaily.ORDERS];
+                if (orders == 0) continue;
+                DailySales d = new DailySales();
+                d.setDay(LocalDate.ofEpochDay((Integer) r[EmbeddedSchema.SalesDaily.DAY]));
+                d.setOrders(orders);
+                d.setUnits((Long) r[EmbeddedSchema.SalesDaily.UNITS]);
+                d.setRevenueCents((Long) r[EmbeddedSchema.SalesDaily.REVENUE]);
+                list.add(d);
+            }
+            return list;
+        });
+    }
+
+    public List<ProductSales> topProducts(int limit) {
+        return db.read(() -> {
+            List<ProductSales> list = new ArrayList<>();
+            EmbeddedTable catalog = db.table(EmbeddedSchema.Products.TABLE);
+            for (Object[] r : db.table(PRODUCTS).sortedIndex("revenue").scan(new Object[0], new Object[0], true)) {
+                if (list.size() == limit) break;
+                long units = (Long) r[EmbeddedSchema.SalesByProduct.UNITS];
+                int productId = (Integer) r[EmbeddedSchema.SalesByProduct.PRODUCT_ID];
+                Object[] p = catalog.get(productId);
+                if (units <= 0 || p == null) continue;
+                ProductSales s = new ProductSales();
+                s.setProductId(productId);
+                s.setProductName((String) p[EmbeddedSchema.Products.NAME]);
+                s.setUnits(units);
+                s.setRevenueCents((Long) r[EmbeddedSchema.SalesByProduct.REVENUE]);
+                list.add(s);
+            }
+            return list;
+        });
+    }
+
+    // Sums the history and swaps the totals in within one write, so no order can change between
+    // the two. The backfill workers only read, while this thread holds the write lock for them;
+    // readers wait for the rebuild, and so does checkout.
+    public boolean rebuild() {
+        try {
+            db.write(tx -> {
+                int maxId = 0;
+                for (Object[] o : db.table(EmbeddedSchema.Orders.TABLE).all()) {
+                    maxId = Math.max(maxId, (Integer) o[EmbeddedSchema.Orders.ID]);
+                }
+                SalesBackfill.Totals totals = SalesBackfill.run(this::sumOrders, 1, maxId + 1,
+                        BACKFILL_CHUNK, BACKFILL_THREADS);
+
+                for (Object[] r : new ArrayList<>(db.table(DAILY).all())) tx.delete(DAILY, (Integer) r[0]);
+                for (Object[] r : new ArrayList<>(db.table(PRODUCTS).all())) tx.delete(PRODUCTS, (Integer) r[0]);
+                for (Map.Entry<Long, long[]> e : new TreeMap<>(totals.getDaily()).entrySet()) {
+                    long[] v = e.getValue();
+                    tx.insert(DAILY, new Object[]{(int) (long) e.getKey(), v[0], v[1], v[2]});
+                }
+                for (Map.Entry<Integer, long[]> e : new TreeMap<>(totals.getProducts()).entrySet()) {
+                    tx.insert(PRODUCTS, new Object[]{e.getKey(), e.getValue()[0], e.getValue()[1]});
+                }
+                return null;
+            });
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private SalesBackfill.Totals sumOrders(int fromId, int toId) {
+        SalesBackfill.Totals t = new SalesBackfill.Totals();
+        EmbeddedTable orders = db.table(EmbeddedSchema.Orders.TABLE);
+        EmbeddedTable.SortedIndex items = db.table(EmbeddedSchema.OrderItems.TABLE).sortedIndex("order");
+        for (int id = fromId; id < toId; id++) {
+            Object[] o = orders.get(id);
+            if (o == null || OrderStatus.CANCELLED.equals(o[EmbeddedSchema.Orders.STATUS])) continue;
+            long day = epochDay(o);
+            t.addOrder(day, EmbeddedSchema.cents(o[EmbeddedSchema.Orders.TOTAL_AMOUNT]));
+            for (Object[] it : items.equalTo(id)) {
+                t.addLine(day, (Integer) it[EmbeddedSchema.OrderItems.PRODUCT_ID],
+                        (Integer) it[EmbeddedSchema.OrderItems.QUANTITY],
+                        EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.LINE_TOTAL]));
+            }
+        }
+        return t;
+    }
+
+    // Incremental maintenance inside the caller's write transaction (EmbeddedOrderDAO)
+
+    static void addOrder(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, Object[] order, List<OrderItem> lines) {
+        long units = 0;
+        for (OrderItem it : lines) {
+            units += it.getQuantity();
+            addProduct(db, tx, it.getProductId(), it.getQuantity(), it.getLineTotalCents());
+        }
+        addDay(db, tx, epochDay(order), 1, units, EmbeddedSchema.cents(order[EmbeddedSchema.Orders.TOTAL_AMOUNT]));
+    }
+
+    // Call before the order is cancelled or deleted; a cancelled order was taken out back then
+    static void removeOrder(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, Object[] order) {
+        if (OrderStatus.CANCELLED.equals(order[EmbeddedSchema.Orders.STATUS])) return;
+        long units = 0;
+        for (Object[] it : db.table(EmbeddedSchema.OrderItems.TABLE).sortedIndex("order")
+                .equalTo(order[EmbeddedSchema.Orders.ID])) {
+            int quantity = (Integer) it[EmbeddedSchema.OrderItems.QUANTITY];
+            units += quantity;
+            addProduct(db, tx, (Integer) it[EmbeddedSchema.OrderItems.PRODUCT_ID], -quantity,
+                    -EmbeddedSchema.cents(it[EmbeddedSchema.OrderItems.LINE_TOTAL]));
+        }
+        addDay(db, tx, epochDay(order), -1, -units, -EmbeddedSchema.cents(order[EmbeddedSchema.Orders.TOTAL_AMOUNT]));
+    }
+
+    private static void addDay(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, long epochDay,
+                               long orders, long units, long revenueCents) {
+        int day = (int) epochDay;
+        Object[] r = db.table(DAILY).get(day);
+        if (r == null) {
+            tx.insert(DAILY, new Object[]{day, orders, units, revenueCents});
+            return;
+        }
+        r = r.clone();
+        r[EmbeddedSchema.SalesDaily.ORDERS] = (Long) r[EmbeddedSchema.SalesDaily.ORDERS] + orders;
+        r[EmbeddedSchema.SalesDaily.UNITS] = (Long) r[EmbeddedSchema.SalesDaily.UNITS] + units;
+        r[EmbeddedSchema.SalesDaily.REVENUE] = (Long) r[EmbeddedSchema.SalesDaily.REVENUE] + revenueCents;
+        tx.update(DAILY, r);
+    }
+
+    private static void addProduct(EmbeddedDatabase db, EmbeddedDatabase.Tx tx, int productId,
+                                   long units, long revenueCents) {
+        Object[] r = db.table(PRODUCTS).get(productId);
+        if (r == null) {
+            tx.insert(PRODUCTS, new Object[]{productId, units, revenueCents});
+            return;
+        }
+        r = r.clone();
+        r[EmbeddedSchema.SalesByProduct.UNITS] = (Long) r[EmbeddedSchema.SalesByProduct.UNITS] + units;
+        r[EmbeddedSchema.SalesByProduct.REVENUE] = (Long) r[EmbeddedSchema.SalesByProduct.REVENUE] + revenueCents;
+        tx.update(PRODUCTS, r);
+    }
+
+    // Calendar day of created_at in this machine's time zone, like MySQL's DATE(created_at)
+    private static long epochDay(Object[] order) {
+        return Instant.ofEpochMilli((Long) order[EmbeddedSchema.Orders.CREATED_AT])
+                .atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,117 @@
+// EmbeddedSchema.java
+
+// Table layout of the embedded engine, mirroring doxey.sql plus migrations/.
+// The column positions below are what the Embedded*DAO classes use to read and build rows.
+public final class EmbeddedSchema {
+
+    private EmbeddedSchema() {
+    }
+
+    public static final class Users {
+        public static final String TABLE = "users";
+        public static final int ID = 0, USERNAME = 1, PASSWORD = 2, FULL_NAME = 3, ADDRESS = 4,
+                ROLE = 5, CREATED_AT = 6, MUST_CHANGE_PASSWORD = 7;
+    }
+
+    public static final class Products {
+        public static final String TABLE = "products";
+        public static final int ID = 0, NAME = 1, DESCRIPTION = 2, PRICE = 3, STOCK_QUANTITY = 4,
+                ACTIVE = 5, IMAGE_PATH = 6;
+    }
+
+    public static final class Coupons {
+        public static final String TABLE = "coupons";
+        public static final int ID = 0, CODE = 1, DESCRIPTION = 2, DISCOUNT_TYPE = 3, DISCOUNT_VALUE = 4,
+                VALID_FROM = 5, VALID_TO = 6, ACTIVE = 7;
+    }
+
+    public static final class Orders {
+        public static final String TABLE = "orders";
+        public static final int ID = 0, CUSTOMER_ID = 1, COUPON_ID = 2, STATUS = 3, TOTAL_AMOUNT = 4,
+                CREATED_AT = 5, UPDATED_AT = 6;
+    }
+
+    public static final class OrderItems {
+        public static final String TABLE = "order_items";
+        public static final int ID = 0, ORDER_ID = 1, PRODUCT_ID = 2, QUANTITY = 3, UNIT_PRICE = 4,
+                LINE_TOTAL = 5;
+    }
+
+    public static final class OrderOutbox {
+        public static final String TABLE = "order_outbox";
+        public static final int ID = 0, ORDER_ID = 1, EVENT_TYPE = 2, PAYLOAD = 3, CREATED_AT = 4;
+    }
+
+    // One row per day (no slots: embedded writers are serialised anyway); DAY is the epoch day
+    public static final class SalesDaily {
+        public static final String TABLE = "sales_daily";
+        public static final int DAY = 0, ORDERS = 1, UNITS = 2, REVENUE = 3;
+    }
+
+    public static final class SalesByProduct {
+        public static final String TABLE = "sales_by_product";
+        public static final int PRODUCT_ID = 0, UNITS = 1, REVENUE = 2;
+    }
+
+    // Money columns hold a Long number of cents (see Money). Logs written before that held
+    // Double amounts; those are read back as the nearest cent.
+    static long cents(Object v) {
+        if (v instanceof Double) return Math.round((Double) v * 100.0);
+        return v == null ? 0 : (Long) v;
+    }
+
+    static void create(EmbeddedDatabase db) {
+        EmbeddedTable users = new EmbeddedTable(Users.TABLE, "user_id", "username", "password",
+                "full_name", "address", "role", "created_at", "must_change_password");
+        users.addUniqueIndex("username", "username", true);
+        users.addSortedIndex("role_name", "role", "full_name");
+        db.defineTable(users);
+
+        EmbeddedTable products = new EmbeddedTable(Products.TABLE, "product_id", "name", "description",
+                "price", "stock_quantity", "active", "image_path");
+        products.addSortedIndex("active_id", "active", "product_id");
+        db.defineTable(products);
+
+        EmbeddedTable coupons = new EmbeddedTable(Coupons.TABLE, "coupon_id", "code", "description",
+                "discount_type", "discount_value", "valid_from", "valid_to", "active");
+        coupons.addUniqueIndex("code", "code", true);
+        db.defineTable(coupons);
+
+        EmbeddedTable orders = new EmbeddedTable(Orders.TABLE, "order_id", "customer_id", "coupon_id",
+                "status", "total_amount", "created_at", "updated_at");
+        orders.addSortedIndex("customer_created", "customer_id", "created_at");
+        orders.addSortedIndex("created", "created_at");
+        db.defineTable(orders);
+
+        EmbeddedTable items = new EmbeddedTable(OrderItems.TABLE, "order_item_id", "order_id", "product_id",
+                "quantity", "unit_price", "line_total");
+        items.addSortedIndex("order", "order_id");
+        db.defineTable(items);
+
+        EmbeddedTable outbox = new EmbeddedTable(OrderOutbox.TABLE, "outbox_id", "order_id", "event_type",
+                "payload", "created_at");
+        outbox.addSortedIndex("id", "outbox_id");
+        db.defineTable(outbox);
+
+        EmbeddedTable salesDaily = new EmbeddedTable(SalesDaily.TABLE, "day", "orders", "units", "revenue_cents");
+        salesDaily.addSortedIndex("day", "day");
+        db.defineTable(salesDaily);
+
+        EmbeddedTable salesByProduct = new EmbeddedTable(SalesByProduct.TABLE, "product_id", "units", "revenue_cents");
+        salesByProduct.addSortedIndex("revenue", "revenue_cents", "product_id");
+        db.defineTable(salesByProduct);
+    }
+
+    // Same starting accounts and coupon as doxey.sql, written once into a fresh store
+    static void seed(EmbeddedDatabase db) {
+        long now = System.currentTimeMillis();
+        db.write(tx -> {
+            tx.insert(Users.TABLE, new Object[]{null, "denis", "denis", "Main Admin", null, "ADMIN", now, false});
+            tx.insert(Users.TABLE, new Object[]{null, "asghar", "asghar", "Employee", null, "EMPLOYEE", now, false});
+            tx.insert(Users.TABLE, new Object[]{null, "eddie", "eddie", "Eddie", "123 Main St", "CUSTOMER", now, false});
+            tx.insert(Coupons.TABLE, new Object[]{null, "WELCOME10", "10% off for new customers", "PERCENT", 1000L,
+                    null, null, true});
+            return null;
+        });
+    }
+}
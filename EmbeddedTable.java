@@ -0,0 +1,238 @@
+// EmbeddedTable.java
+import java.util.*;
+
+// One table of the embedded engine.
+// Rows are Object[] in column order with the integer primary key in column 0.
+// Stored rows are never mutated in place (updates swap in a new array), so a row
+// handed to a reader stays consistent after the read lock is released.
+public class EmbeddedTable {
+
+    private final String name;
+    private final String[] columns;
+    private final HashMap<Integer, Object[]> rows = new HashMap<>();
+    private final Map<String, UniqueIndex> uniqueIndexes = new LinkedHashMap<>();
+    private final Map<String, SortedIndex> sortedIndexes = new LinkedHashMap<>();
+    private int nextId = 1;
+
+    public EmbeddedTable(String name, String... columns) {
+        this.name = name;
+        this.columns = columns;
+    }
+
+    public String getName() { return name; }
+    public int columnCount() { return columns.length; }
+
+    public int column(String col) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].equals(col)) return i;
+        }
+        throw new IllegalArgumentException(name + " has no column " + col);
+    }
+
+    // UNIQUE hash index; ignoreCase mirrors MySQL's case-insensitive default collation
+    public void addUniqueIndex(String indexName, String col, boolean ignoreCase) {
+        UniqueIndex idx = new UniqueIndex(column(col), ignoreCase);
+        for (Object[] r : rows.values()) idx.put(r);
+        uniqueIndexes.put(indexName, idx);
+    }
+
+    public void addSortedIndex(String indexName, String... cols) {
+        int[] positions = new int[cols.length];
+        for (int i = 0; i < cols.length; i++) positions[i] = column(cols[i]);
+        SortedIndex idx = new SortedIndex(positions);
+        for (Object[] r : rows.values()) idx.add(r);
+        sortedIndexes.put(indexName, idx);
+    }
+
+    public UniqueIndex uniqueIndex(String indexName) {
+        UniqueIndex idx = uniqueIndexes.get(indexName);
+        if (idx == null) throw new IllegalArgumentException(name + " has no index " + indexName);
+        return idx;
+    }
+
+    public SortedIndex sortedIndex(String indexName) {
+        SortedIndex idx = sortedIndexes.get(indexName);
+        if (idx == null) throw new IllegalArgumentException(name + " has no index " + indexName);
+        return idx;
+    }
+
+    public Object[] get(int pk) {
+        return rows.get(pk);
+    }
+
+    public Collection<Object[]> all() {
+        return rows.values();
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    int allocateId() {
+        return nextId++;
+    }
+
+    // Low-level mutators used by EmbeddedDatabase (transactions and log replay)
+
+    void checkUnique(Object[] row, Object[] replacing) {
+        for (UniqueIndex idx : uniqueIndexes.values()) {
+            Integer owner = idx.lookup(row[idx.col]);
+            if (owner != null && (replacing == null || owner != (int) (Integer) replacing[0])) {
+                throw new EmbeddedDatabase.ConstraintViolation("Duplicate entry '" + row[idx.col] +
+                        "' for " + name + "." + columns[idx.col]);
+            }
+        }
+    }
+
+    void put(Object[] row) {
+        int pk = (Integer) row[0];
+        Object[] old = rows.put(pk, row);
+        if (old != null) unindex(old);
+        for (UniqueIndex idx : uniqueIndexes.values()) idx.put(row);
+        for (SortedIndex idx : sortedIndexes.values()) idx.add(row);
+        if (pk >= nextId) nextId = pk + 1;
+    }
+
+    Object[] remove(int pk) {
+        Object[] old = rows.remove(pk);
+        if (old != null) unindex(old);
+        return old;
+    }
+
+    private void unindex(Object[] row) {
+        for (UniqueIndex idx : uniqueIndexes.values()) idx.remove(row);
+        for (SortedIndex idx : sortedIndexes.values()) idx.remove(row);
+    }
+
+    // Hash index over one unique column
+    public class UniqueIndex {
+        private final int col;
+        private final boolean ignoreCase;
+        private final HashMap<Object, Integer> map = new HashMap<>();
+
+        UniqueIndex(int col, boolean ignoreCase) {
+            this.col = col;
+            this.ignoreCase = ignoreCase;
+        }
+
+        private Object key(Object v) {
+            return ignoreCase && v instanceof String ? ((String) v).toLowerCase(Locale.ROOT) : v;
+        }
+
+        void put(Object[] row) {
+            if (row[col] != null) map.put(key(row[col]), (Integer) row[0]);
+        }
+
+        void remove(Object[] row) {
+            if (row[col] != null) map.remove(key(row[col]), row[0]);
+        }
+
+        public Integer lookup(Object value) {
+            return value == null ? null : map.get(key(value));
+        }
+
+        public Object[] find(Object value) {
+            Integer pk = lookup(value);
+            return pk == null ? null : rows.get(pk);
+        }
+    }
+
+    // Ordered index over one or more columns; the primary key is appended to keep entries unique.
+    public class SortedIndex {
+        private final int[] cols;
+        private final TreeSet<Key> set = new TreeSet<>();
+
+        SortedIndex(int[] cols) {
+            this.cols = cols;
+        }
+
+        private Key keyOf(Object[] row) {
+            Object[] v = new Object[cols.length + 1];
+            for (int i = 0; i < cols.length; i++) v[i] = row[cols[i]];
+            v[cols.length] = row[0];
+            return new Key(v, 0);
+        }
+
+        void add(Object[] row) {
+            set.add(keyOf(row));
+        }
+
+        void remove(Object[] row) {
+            set.remove(keyOf(row));
+        }
+
+        // Rows whose leading index columns fall between the two prefixes (both inclusive),
+        // e.g. range({1}, {1}, ...) for "active = 1" or range({1}, {1, id - 1}, ...) for
+        // "active = 1 AND product_id < id".
+        public List<Object[]> range(Object[] lowPrefix, Object[] highPrefix, boolean descending, int limit) {
+            List<Object[]> out = new ArrayList<>();
+            for (Object[] r : scan(lowPrefix, highPrefix, descending)) {
+                if (out.size() >= limit) break;
+                out.add(r);
+            }
+            return out;
+        }
+
+        // Same bounds as range, but rows are looked up one at a time as the caller iterates, for
+        // callers that filter further and stop early. An empty prefix means no bound.
+        public Iterable<Object[]> scan(Object[] lowPrefix, Object[] highPrefix, boolean descending) {
+            NavigableSet<Key> sub = set.subSet(new Key(lowPrefix, -1), true, new Key(highPrefix, 1), true);
+            NavigableSet<Key> keys = descending ? sub.descendingSet() : sub;
+            return () -> new Iterator<Object[]>() {
+                private final Iterator<Key> it = keys.iterator();
+
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                public Object[] next() {
+                    Key k = it.next();
+                    return rows.get((Integer) k.values[k.values.length - 1]);
+                }
+            };
+        }
+
+        public List<Object[]> equalTo(Object... prefix) {
+            return range(prefix, prefix, false, Integer.MAX_VALUE);
+        }
+    }
+
+    // Index key. A bound key (bound = -1 or +1) carries only a prefix and sorts
+    // before / after every full key that shares that prefix.
+    private static final class Key implements Comparable<Key> {
+        final Object[] values;
+        final int bound;
+
+        Key(Object[] values, int bound) {
+            this.values = values;
+            this.bound = bound;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public int compareTo(Key o) {
+            int n = Math.min(values.length, o.values.length);
+            for (int i = 0; i < n; i++) {
+                Object a = values[i], b = o.values[i];
+                if (a == b) continue;
+                if (a == null) return -1;
+                if (b == null) return 1;
+                int c = ((Comparable) a).compareTo(b);
+                if (c != 0) return c;
+            }
+            if (values.length == o.values.length) return Integer.compare(bound, o.bound);
+            // one side ran out of values: it is a prefix bound of the other
+            return values.length < o.values.length ? (bound != 0 ? bound : -1) : (o.bound != 0 ? -o.bound : 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && compareTo((Key) o) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+// EmbeddedUserDAO.java
+import java.util.ArrayList;
+import java.util.List;
+
+public class EmbeddedUserDAO implements UserDAO {
+
+    private static final String USERS = EmbeddedSchema.Users.TABLE;
+
+    private final EmbeddedDatabase db;
+
+    public EmbeddedUserDAO(EmbeddedDatabase db) {
+        this.db = db;
+    }
+
+    public User findByUsername(String username) {
+        return db.read(() -> {
+            Object[] r = db.table(USERS).uniqueIndex("username").find(username);
+            return r == null ? null : mapRowToUser(r);
+        });
+    }
+
+    public User findById(int userId) {
+        return db.read(() -> {
+            Object[] r = db.table(USERS).get(userId);
+            return r == null ? null : mapRowToUser(r);
+        });
+    }
+
+    public boolean createCustomer(User user) {
+        Object[] row = {null, user.getUsername(), user.getPassword(), user.getFullName(), user.getAddress(),
+                "CUSTOMER", System.currentTimeMillis(), false};
+        try {
+            user.setUserId(db.write(tx -> tx.insert(USERS, row)));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean createEmployee(User u) {
+        Object[] row = {null, u.getUsername(), u.getPassword(), u.getFullName(), null,
+                "EMPLOYEE", System.currentTimeMillis(), true};
+        try {
+            u.setUserId(db.write(tx -> tx.insert(USERS, row)));
+            return true;
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public void updatePasswordAndDisableFlag(User u) {
+        update(u.getUserId(), null, r -> {
+            r[EmbeddedSchema.Users.PASSWORD] = u.getPassword();
+            r[EmbeddedSchema.Users.MUST_CHANGE_PASSWORD] = false;
+        });
+    }
+
+    public List<User> listCustomers() {
+        return db.read(() -> {
+            List<User> customers = new ArrayList<>();
+            for (Object[] r : db.table(USERS).sortedIndex("role_name").equalTo("CUSTOMER")) {
+                customers.add(mapRowToUser(r));
+            }
+            return customers;
+        });
+    }
+
+    public boolean updateCustomerInfo(User user) {
+        return updateCustomerByAdmin(user.getUserId(), user.getFullName(), user.getAddress(),
+                user.getUsername(), user.getPassword());
+    }
+
+    public boolean deleteUser(int userId) {
+        try {
+            return db.write(tx -> {
+                // orders (and their items) go first, each with its ORDER_DELETED event, same as the
+                // MySQL version
+                for (Object[] o : db.table(EmbeddedSchema.Orders.TABLE).sortedIndex("customer_created")
+                        .equalTo(userId)) {
+                    EmbeddedOrderDAO.appendRemoved(tx, o, OrderEvent.DELETED);
+                    EmbeddedOrderDAO.deleteOrderRows(db, tx, (Integer) o[EmbeddedSchema.Orders.ID]);
+                }
+                return tx.delete(USERS, userId);
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // ADMIN — Update Customer (full name, address, username, password)
+    public boolean updateCustomerByAdmin(int userId, String fullName, String address,
+                                         String username, String password) {
+        return update(userId, "CUSTOMER", r -> {
+            r[EmbeddedSchema.Users.FULL_NAME] = fullName;
+            r[EmbeddedSchema.Users.ADDRESS] = address;
+            r[EmbeddedSchema.Users.USERNAME] = username;
+            r[EmbeddedSchema.Users.PASSWORD] = password;
+        });
+    }
+
+    // ADMIN — Update Employee (full name, username, password)
+    public boolean updateEmployeeByAdmin(int userId, String fullName,
+                                         String username, String password) {
+        return update(userId, "EMPLOYEE", r -> {
+            r[EmbeddedSchema.Users.FULL_NAME] = fullName;
+            r[EmbeddedSchema.Users.USERNAME] = username;
+            r[EmbeddedSchema.Users.PASSWORD] = password;
+        });
+    }
+
+    // Copies the row, lets the caller change it and writes it back; role == null matches any role
+    private boolean update(int userId, String role, java.util.function.Consumer<Object[]> change) {
+        try {
+            return db.write(tx -> {
+                Object[] r = db.table(USERS).get(userId);
+                if (r == null || (role != null && !role.equals(r[EmbeddedSchema.Users.ROLE]))) return false;
+                r = r.clone();
+                change.accept(r);
+                tx.update(USERS, r);
+                return true;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    static User mapRowToUser(Object[] r) {
+        User u = new User();
+        u.setUserId((Integer) r[EmbeddedSchema.Users.ID]);
+        u.setUsername((String) r[EmbeddedSchema.Users.USERNAME]);
+        u.setPassword((String) r[EmbeddedSchema.Users.PASSWORD]);
+        u.setFullName((String) r[EmbeddedSchema.Users.FULL_NAME]);
+        u.setAddress((String) r[EmbeddedSchema.Users.ADDRESS]);
+        u.setRole((String) r[EmbeddedSchema.Users.ROLE]);
+        u.setMustChangePassword((Boolean) r[EmbeddedSchema.Users.MUST_CHANGE_PASSWORD]);
+        return u;
+    }
+}
@@ -0,0 +1,421 @@
+// EventLog.java
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+// Append-only log of OrderEvents on local disk, filled by OutboxRelay.
+//
+// The log is a directory of fixed-size segment files named after the sequence number of their
+// first event (00000000000000000001.log, ...). Each segment is memory-mapped, so appending is a
+// copy into the page cache and readers - in this process or another one - see a new event as
+// soon as it is written, without a system call. When an event doesn't fit, the segment is
+// closed with an end marker and a new one is started.
+//
+// Every event gets the next sequence number, with no gaps, so a consumer only has to remember
+// the last number it processed to resume (reader(last + 1)) or replay from any point.
+//
+// Frame: [int length][int crc32 of body][body]
+// Body:  [long sequence][long outboxId][long createdAt][int orderId]
+//        [short typeLength][type][int payloadLength][payload UTF-8]
+// The length is written last, so a zero length means "nothing here yet" and a frame with a
+// bad checksum is one still being written (or torn by a crash; see recover()).
+public class EventLog implements Closeable {
+
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 8;
+    private static final int FIXED_BODY = 8 + 8 + 8 + 4 + 2 + 4;
+    private static final int END_OF_SEGMENT = -1;
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final boolean readOnly;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // writer state
+    private final FileChannel lockChannel;
+    private final FileLock writerLock;
+    private Segment active;
+    private ByteBuffer activeView;
+    private int writePos;
+    private volatile long lastSequence;
+    private final CRC32 crc = new CRC32();
+    private final Object arrived = new Object();
+
+    private static final class Segment {
+        final long baseSequence;
+        final MappedByteBuffer buf;
+
+        Segment(long baseSequence, MappedByteBuffer buf) {
+            this.baseSequence = baseSequence;
+            this.buf = buf;
+        }
+    }
+
+    private EventLog(Path dir, int segmentBytes, boolean readOnly) throws IOException {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.readOnly = readOnly;
+        if (readOnly) {
+            lockChannel = null;
+            writerLock = null;
+            refreshSegments();
+        } else {
+            Files.createDirectories(dir);
+            // one writer per directory, even across processes
+            lockChannel = FileChannel.open(dir.resolve("writer.lock"), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+            FileLock lock;
+            try {
+                lock = lockChannel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;      // already open for writing in this JVM
+            }
+            writerLock = lock;
+            if (writerLock == null) {
+                lockChannel.close();
+                throw new IOException("Event log " + dir + " is already open for writing");
+            }
+            refreshSegments();
+            recover();
+        }
+    }
+
+    // The log this process appends to (OutboxRelay); segmentBytes only applies to new segments
+    public static EventLog open(Path dir, int segmentBytes) throws IOException {
+        return new EventLog(dir, segmentBytes, false);
+    }
+
+    // For consumers in another process: they can read and tail, but not append
+    public static EventLog openReadOnly(Path dir) throws IOException {
+        return new EventLog(dir, 0, true);
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Sequence of the oldest event still on disk
+    public long getFirstSequence() {
+        Map.Entry<Long, Segment> first = segments.firstEntry();
+        return first == null ? 1 : first.getKey();
+    }
+
+    // Adds an event and sets its sequence number. Not durable until flush().
+    public synchronized long append(OrderEvent e) throws IOException {
+        if (readOnly) throw new IllegalStateException("Event log opened read-only");
+        byte[] type = e.getType().getBytes(StandardCharsets.UTF_8);
+        byte[] payload = e.getPayload() == null ? new byte[0] : e.getPayload().getBytes(StandardCharsets.UTF_8);
+        int bodyLength = FIXED_BODY + type.length + payload.length;
+        if (HEADER + bodyLength > segmentBytes - 4) {
+            throw new IllegalArgumentException("Event of " + bodyLength + " bytes doesn't fit in a segment");
+        }
+        if (writePos + HEADER + bodyLength > segmentBytes - 4) roll();
+
+        long seq = lastSequence + 1;
+        ByteBuffer b = activeView;
+        b.limit(writePos + HEADER + bodyLength).position(writePos + HEADER);
+        b.putLong(seq).putLong(e.getOutboxId()).putLong(e.getCreatedAt()).putInt(e.getOrderId())
+                .putShort((short) type.length).put(type).putInt(payload.length).put(payload);
+
+        b.position(writePos + HEADER);
+        crc.reset();
+        crc.update(b);
+        b.limit(b.capacity());
+        b.putInt(writePos + 4, (int) crc.getValue());
+        b.putInt(writePos, bodyLength);      // publishes the frame
+
+        writePos += HEADER + bodyLength;
+        lastSequence = seq;
+        e.setSequence(seq);
+        synchronized (arrived) {
+            arrived.notifyAll();
+        }
+        return seq;
+    }
+
+    // Forces appended events to disk
+    public synchronized void flush() {
+        if (active != null) active.buf.force();
+    }
+
+    // Reads from 'fromSequence' on (1 or less = from the oldest event kept)
+    public Reader reader(long fromSequence) {
+        return new Reader(fromSequence);
+    }
+
+    // Outbox ids of the last 'max' events, oldest first; OutboxRelay uses them after a restart
+    // to recognise outbox rows it had already copied when it stopped
+    public List<Long> recentOutboxIds(int max) {
+        ArrayDeque<Long> ids = new ArrayDeque<>(max);
+        List<Segment> tail = new ArrayList<>();
+        long end = lastSequence;
+        long covered = 0;
+        for (Segment s : segments.descendingMap().values()) {
+            tail.add(0, s);
+            covered += end - s.baseSequence + 1;
+            end = s.baseSequence - 1;
+            if (covered >= max) break;
+        }
+        for (Segment s : tail) {
+            ByteBuffer view = s.buf.duplicate();
+            int pos = 0;
+            int len;
+            while ((len = frameLength(view, pos)) > 0) {
+                if (ids.size() == max) ids.removeFirst();
+                ids.addLast(view.getLong(pos + HEADER + 8));
+                pos += HEADER + len;
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    @Override
+    public synchronized void close() {
+        flush();
+        try {
+            if (writerLock != null) writerLock.release();
+            if (lockChannel != null) lockChannel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Consumer position in the log. Not thread-safe: one per consuming thread.
+    public final class Reader {
+        private Segment segment;
+        private ByteBuffer view;
+        private int pos;
+        private long nextSequence;
+
+        private Reader(long fromSequence) {
+            nextSequence = Math.max(1, fromSequence);
+            Map.Entry<Long, Segment> e = segments.floorEntry(nextSequence);
+            if (e == null) e = segments.firstEntry();
+            if (e != null) moveTo(e.getValue());
+            // skip whole frames by their length until the wanted sequence
+            while (view != null) {
+                int len = frameLength(view, pos);
+                if (len <= 0 || view.getLong(pos + HEADER) >= nextSequence) break;
+                pos += HEADER + len;
+            }
+        }
+
+        public long getNextSequence() {
+            return nextSequence;
+        }
+
+        // The next event, or null if there is none yet
+        public OrderEvent poll() {
+            while (true) {
+                if (view == null) {
+                    Map.Entry<Long, Segment> first = firstSegment();
+                    if (first == null) return null;
+                    moveTo(first.getValue());
+                }
+                int len = frameLength(view, pos);
+                if (len == END_OF_SEGMENT) {
+                    Segment next = segmentAfter(segment);
+                    if (next == null) return null;
+                    moveTo(next);
+                    continue;
+                }
+                if (len == 0) return null;
+                OrderEvent e = decode(view, pos, len);
+                if (e == null) return null;      // still being written
+                pos += HEADER + len;
+                if (e.getSequence() < nextSequence) continue;
+                nextSequence = e.getSequence() + 1;
+                return e;
+            }
+        }
+
+        // Waits up to the timeout for the next event. Wakes up as soon as this process appends;
+        // a read-only log (another process is writing) is checked every millisecond.
+        public OrderEvent next(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (true) {
+                OrderEvent e = poll();
+                if (e != null) return e;
+                long left = deadline - System.nanoTime();
+                if (left <= 0) return null;
+                if (readOnly) {
+                    LockSupport.parkNanos(Math.min(left, TimeUnit.MILLISECONDS.toNanos(1)));
+                    if (Thread.interrupted()) throw new InterruptedException();
+                } else {
+                    synchronized (arrived) {
+                        if (lastSequence < nextSequence) TimeUnit.NANOSECONDS.timedWait(arrived, left);
+                    }
+                }
+            }
+        }
+
+        private void moveTo(Segment s) {
+            segment = s;
+            view = s.buf.duplicate();
+            pos = 0;
+        }
+    }
+
+    // length of the frame at pos: > 0 for a frame, 0 for nothing yet, END_OF_SEGMENT at the end
+    private static int frameLength(ByteBuffer view, int pos) {
+        if (pos + HEADER > view.capacity()) return END_OF_SEGMENT;
+        int len = view.getInt(pos);
+        if (len == END_OF_SEGMENT) return END_OF_SEGMENT;
+        if (len < FIXED_BODY || pos + HEADER + len > view.capacity()) return 0;
+        return len;
+    }
+
+    // null unless the frame is complete and intact
+    private static OrderEvent decode(ByteBuffer view, int pos, int len) {
+        view.limit(pos + HEADER + len).position(pos + HEADER);
+        CRC32 check = new CRC32();
+        check.update(view);
+        view.limit(view.capacity());
+        if ((int) check.getValue() != view.getInt(pos + 4)) return null;
+
+        view.position(pos + HEADER);
+        OrderEvent e = new OrderEvent();
+        e.setSequence(view.getLong());
+        e.setOutboxId(view.getLong());
+        e.setCreatedAt(view.getLong());
+        e.setOrderId(view.getInt());
+        byte[] type = new byte[view.getShort()];
+        view.get(type);
+        byte[] payload = new byte[view.getInt()];
+        view.get(payload);
+        e.setType(new String(type, StandardCharsets.UTF_8));
+        e.setPayload(new String(payload, StandardCharsets.UTF_8));
+        return e;
+    }
+
+    private Map.Entry<Long, Segment> firstSegment() {
+        if (segments.isEmpty() && readOnly) refreshSegments();
+        return segments.firstEntry();
+    }
+
+    private Segment segmentAfter(Segment s) {
+        Map.Entry<Long, Segment> next = segments.higherEntry(s.baseSequence);
+        if (next == null && readOnly) {
+            refreshSegments();
+            next = segments.higherEntry(s.baseSequence);
+        }
+        return next == null ? null : next.getValue();
+    }
+
+    // Maps segment files not mapped yet (all of them on open; new ones for read-only tails)
+    private synchronized void refreshSegments() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long base;
+                try {
+                    base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (segments.containsKey(base)) continue;
+                Segment s = map(file, base, 0);
+                if (s != null) segments.put(base, s);
+            }
+        } catch (IOException e) {
+            if (!readOnly) throw new UncheckedIOException(e);
+        }
+    }
+
+    // size 0 maps the whole existing file (null if it is still empty)
+    private Segment map(Path file, long base, int size) throws IOException {
+        if (readOnly) {
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                if (ch.size() < HEADER) return null;
+                return new Segment(base, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            if (size == 0) size = (int) raf.length();
+            else raf.setLength(size);       // one step, so a reader never maps a half-sized file
+            return new Segment(base, raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    // Finds the end of the newest segment and cuts off a frame torn by a crash
+    private void recover() throws IOException {
+        if (segments.isEmpty()) {
+            lastSequence = 0;
+            startSegment(1);
+            return;
+        }
+        Segment last = segments.lastEntry().getValue();
+        ByteBuffer view = last.buf.duplicate();
+        long seq = last.baseSequence - 1;
+        int pos = 0;
+        int len;
+        while ((len = frameLength(view, pos)) > 0) {
+            OrderEvent e = decode(view, pos, len);
+            if (e == null) break;
+            seq = e.getSequence();
+            pos += HEADER + len;
+        }
+        lastSequence = seq;
+        if (len == END_OF_SEGMENT) {
+            startSegment(seq + 1);
+            return;
+        }
+        if (pos + HEADER <= view.capacity() && view.getInt(pos) != 0) {
+            System.err.println("[events] discarding torn event at " + pos + " in segment " + last.baseSequence);
+            for (int i = pos; i < view.capacity(); i++) view.put(i, (byte) 0);
+        }
+        active = last;
+        activeView = view;
+        writePos = pos;
+    }
+
+    private void roll() throws IOException {
+        Segment old = active;
+        ByteBuffer oldView = activeView;
+        int oldPos = writePos;
+        startSegment(lastSequence + 1);
+        // marker after the new file exists, so a reader that sees it can always find the next one
+        if (oldPos + 4 <= oldView.capacity()) oldView.putInt(oldPos, END_OF_SEGMENT);
+        old.buf.force();
+    }
+
+    private void startSegment(long base) throws IOException {
+        Path file = dir.resolve(String.format("%020d", base) + SUFFIX);
+        Segment s = map(file, base, segmentBytes);
+        segments.put(base, s);
+        active = s;
+        activeView = s.buf.duplicate();
+        writePos = 0;
+    }
+
+    // Prints events as they arrive: java EventLog [fromSequence]  (-Dstore.events.dir=...)
+    public static void main(String[] args) throws Exception {
+        long from = args.length > 0 ? Long.parseLong(args[0]) : 1;
+        EventLog log = openReadOnly(Paths.get(System.getProperty("store.events.dir", "data/events")));
+        Reader reader = log.reader(from);
+        while (true) {
+            OrderEvent e = reader.next(1, TimeUnit.SECONDS);
+            if (e != null) System.out.println(e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// LatencyHistogram.java
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-memory latency histogram in the style of HdrHistogram.
+//
+// Values (nanoseconds) are bucketed log-linearly: every power-of-two range is split into 64
+// equal sub-buckets, so any recorded value is reported within ~1.6% of its true value no
+// matter whether it is 3 µs or 30 s. Recording is lock-free (one atomic increment).
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;   // 128 exact buckets for tiny values
+    private static final int HALF = SUB_COUNT / 2;        // 64 sub-buckets per power of two
+    private static final long MAX_VALUE = 1L << 42;      // ~73 minutes; larger values are clamped
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_VALUE));
+        counts.incrementAndGet(indexOf(v));
+        total.incrementAndGet();
+        sum.addAndGet(v);
+        long m;
+        while (v > (m = max.get()) && !max.compareAndSet(m, v)) {
+            // retry
+        }
+    }
+
+    private static int indexOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - (SUB_BITS - 1); // v >> shift lands in [64, 128)
+        return SUB_COUNT + (shift - 1) * HALF + (int) ((v >> shift) - HALF);
+    }
+
+    // Highest value that maps to the bucket, so percentiles never under-report
+    private static long highestEquivalent(int idx) {
+        if (idx < SUB_COUNT) return idx;
+        int shift = (idx - SUB_COUNT) / HALF + 1;
+        long sub = (idx - SUB_COUNT) % HALF + HALF;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    public long getCount() { return total.get(); }
+    public long getMax() { return max.get(); }
+
+    public double getMean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    // Value at the given percentile (0-100), in nanoseconds
+    public long percentile(double p) {
+        long n = total.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestEquivalent(i), max.get());
+        }
+        return max.get();
+    }
+}
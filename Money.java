@@ -0,0 +1,85 @@
+// Money.java
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Amounts of money as a long number of cents, matching the DECIMAL(10,2) columns in doxey.sql.
+//
+// There is deliberately no Money object: prices, line totals and order totals are plain longs,
+// so adding up a cart is integer arithmetic with no boxing, no rounding drift and nothing to
+// garbage-collect. These helpers convert at the edges (JDBC, text fields, display) and do the
+// few calculations that need care (overflow, coupon rounding).
+//
+// Coupon values use the same scale: cents for FIXED, hundredths of a percent for PERCENT
+// (12.50% is 1250).
+public final class Money {
+
+    private Money() {
+    }
+
+    // DECIMAL(10,2) from JDBC -> cents; null (SQL NULL) is 0
+    public static long fromDecimal(BigDecimal value) {
+        if (value == null) return 0;
+        return value.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // cents -> value for PreparedStatement.setBigDecimal
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // "12.5", "$12.50", "1,299.99" -> cents; NumberFormatException for anything else
+    public static long parse(String text) {
+        if (text == null) throw new NumberFormatException("No amount");
+        String s = text.trim().replace(",", "");
+        if (s.startsWith("$")) s = s.substring(1).trim();
+        try {
+            return fromDecimal(new BigDecimal(s));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    // unit price x quantity, failing loudly instead of wrapping around
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, (long) quantity);
+    }
+
+    // hundredths of a percent of an amount, rounded half up to the cent
+    public static long percentOf(long cents, long hundredthsOfPercent) {
+        long scaled = Math.multiplyExact(Math.abs(cents), hundredthsOfPercent);
+        long rounded = (scaled + 5_000) / 10_000;
+        return cents < 0 ? -rounded : rounded;
+    }
+
+    // What is left of a subtotal after a PERCENT or FIXED coupon; never below zero
+    public static long afterDiscount(long subtotal, String discountType, long discountValue) {
+        long discount = "PERCENT".equals(discountType)
+                ? percentOf(subtotal, discountValue)
+                : discountValue;
+        return Math.max(0, subtotal - discount);
+    }
+
+    // "$1234.50" ("-$0.05" for a negative amount)
+    public static String format(long cents) {
+        StringBuilder sb = new StringBuilder(12);
+        if (cents < 0) sb.append('-');
+        return appendTo(sb.append('$'), Math.abs(cents)).toString();
+    }
+
+    // "1234.50", for places that put their own unit next to it
+    public static String plain(long cents) {
+        return appendTo(new StringBuilder(12), cents).toString();
+    }
+
+    // Appends "1234.50" without going through String.format
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long fraction = cents % 100;
+        sb.append(cents / 100).append('.');
+        if (fraction < 10) sb.append('0');
+        return sb.append(fraction);
+    }
+}
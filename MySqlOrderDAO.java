@@ -0,0 +1,403 @@
+// MySqlOrderDAO.java
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class MySqlOrderDAO implements OrderDAO {
+
+    // order lines per INSERT ... VALUES (...), (...)
+    private static final int ROWS_PER_INSERT = 100;
+    // order ids per bulk UPDATE/DELETE ... WHERE order_id IN (...)
+    private static final int IDS_PER_STATEMENT = 500;
+
+    // Round trips: coupon lookup (if any), one stock UPDATE for the whole cart, the order
+    // INSERT, one multi-row INSERT per 100 lines and the commit - instead of 2N+1 autocommits.
+    public int placeOrder(int customerId, Integer couponId, List<OrderItem> lines) {
+        if (lines.isEmpty()) return -1;
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        long total = 0;
+        for (OrderItem it : lines) {
+            if (it.getQuantity() <= 0) return -1;
+            it.setLineTotalCents(Money.times(it.getUnitPriceCents(), it.getQuantity()));
+            total = Math.addExact(total, it.getLineTotalCents());
+            quantities.merge(it.getProductId(), it.getQuantity(), Integer::sum);
+        }
+
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            if (couponId != null) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT discount_type, discount_value FROM coupons WHERE coupon_id = ?")) {
+                    stmt.setInt(1, couponId);
+                    ResultSet rs = stmt.executeQuery();
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return -1;
+                    }
+                    total = Money.afterDiscount(total, rs.getString("discount_type"),
+                            Money.fromDecimal(rs.getBigDecimal("discount_value")));
+                }
+            }
+
+            // stock first: it locks the product rows and a sold-out line stops us before any insert
+            if (!MySqlProductDAO.decrementStock(conn, quantities)) {
+                conn.rollback();
+                return -1;
+            }
+
+            int orderId = -1;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO orders (customer_id, coupon_id, total_amount) VALUES (?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                stmt.setInt(1, customerId);
+                if (couponId == null) {
+                    stmt.setNull(2, Types.INTEGER);
+                } else {
+                    stmt.setInt(2, couponId);
+                }
+                stmt.setBigDecimal(3, Money.toDecimal(total));
+                stmt.executeUpdate();
+                ResultSet keys = stmt.getGeneratedKeys();
+                if (keys.next()) orderId = keys.getInt(1);
+            }
+            if (orderId <= 0) {
+                conn.rollback();
+                return -1;
+            }
+
+            for (int from = 0; from < lines.size(); from += ROWS_PER_INSERT) {
+                List<OrderItem> rows = lines.subList(from, Math.min(from + ROWS_PER_INSERT, lines.size()));
+                StringBuilder sql = new StringBuilder(
+                        "INSERT INTO order_items (order_id, product_id, quantity, unit_price, line_total) VALUES ");
+                for (int i = 0; i < rows.size(); i++) sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                    int i = 1;
+                    for (OrderItem it : rows) {
+                        stmt.setInt(i++, orderId);
+                        stmt.setInt(i++, it.getProductId());
+                        stmt.setInt(i++, it.getQuantity());
+                        stmt.setBigDecimal(i++, Money.toDecimal(it.getUnitPriceCents()));
+                        stmt.setBigDecimal(i++, Money.toDecimal(it.getLineTotalCents()));
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+            appendEvent(conn, orderId, OrderEvent.PLACED, OrderEvent.placed(customerId, couponId, total, lines));
+            MySqlSalesReportDAO.addOrder(conn, orderId, lines);
+            conn.commit();
+
+            for (OrderItem it : lines) it.setOrderId(orderId);
+            return orderId;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // One forward-only pass: the order row drives the query, so the coupon columns come with
+    // every row (read from the first) and an order without lines still yields one row
+    public OrderDetail getOrderDetails(int orderId) {
+        String sql = "SELECT oi.product_id, p.name, oi.quantity, oi.unit_price, oi.line_total, " +
+                "c.code, c.discount_type, c.discount_value " +
+                "FROM orders o " +
+                "LEFT JOIN coupons c ON o.coupon_id = c.coupon_id " +
+                "LEFT JOIN order_items oi ON oi.order_id = o.order_id " +
+                "LEFT JOIN products p ON oi.product_id = p.product_id " +
+                "WHERE o.order_id = ? ORDER BY oi.order_item_id";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, orderId);
+            ResultSet rs = stmt.executeQuery();
+
+            List<OrderDetail.Line> lines = new ArrayList<>();
+            String code = null, type = null;
+            long value = 0;
+            boolean found = false;
+            while (rs.next()) {
+                if (!found) {
+                    found = true;
+                    code = rs.getString("code");
+                    type = rs.getString("discount_type");
+                    value = Money.fromDecimal(rs.getBigDecimal("discount_value"));
+                }
+                int productId = rs.getInt("product_id");
+                if (rs.wasNull()) continue;   // the order has no lines
+                lines.add(new OrderDetail.Line(productId, rs.getString("name"), rs.getInt("quantity"),
+                        Money.fromDecimal(rs.getBigDecimal("unit_price")),
+                        Money.fromDecimal(rs.getBigDecimal("line_total"))));
+            }
+            if (found) return new OrderDetail(orderId, lines, code, type, value);
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Every filter becomes a WHERE condition and the page is a LIMIT after the keyset
+    // condition, so MySQL only reads the rows it returns (orders are indexed on created_at).
+    public OrderPage findOrders(OrderQuery q) {
+        OrderPage page = new OrderPage();
+        StringBuilder sql = new StringBuilder(
+                "SELECT o.order_id, o.customer_id, u.full_name, o.status, o.total_amount, o.created_at " +
+                "FROM orders o JOIN users u ON o.customer_id = u.user_id WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (q.getStatus() != null) {
+            sql.append(" AND o.status = ?");
+            params.add(q.getStatus());
+        }
+        if (q.getCreatedFrom() != null) {
+            sql.append(" AND o.created_at >= ?");
+            params.add(new Timestamp(q.getCreatedFrom()));
+        }
+        if (q.getCreatedTo() != null) {
+            sql.append(" AND o.created_at < ?");
+            params.add(new Timestamp(q.getCreatedTo()));
+        }
+        if (q.getCustomerId() != null) {
+            sql.append(" AND o.customer_id = ?");
+            params.add(q.getCustomerId());
+        }
+        if (q.getCustomerName() != null && !q.getCustomerName().isEmpty()) {
+            sql.append(" AND u.full_name LIKE ? ESCAPE '!'");
+            params.add(q.getCustomerName().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%");
+        }
+        if (q.getMinTotalCents() != null) {
+            sql.append(" AND o.total_amount >= ?");
+            params.add(Money.toDecimal(q.getMinTotalCents()));
+        }
+        if (q.getMaxTotalCents() != null) {
+            sql.append(" AND o.total_amount <= ?");
+            params.add(Money.toDecimal(q.getMaxTotalCents()));
+        }
+        if (q.getAfterCreatedAt() != null) {
+            Timestamp after = new Timestamp(q.getAfterCreatedAt());
+            sql.append(" AND (o.created_at < ? OR (o.created_at = ? AND o.order_id < ?))");
+            params.add(after);
+            params.add(after);
+            params.add(q.getAfterOrderId());
+        }
+        // one extra row tells us whether there is another page
+        sql.append(" ORDER BY o.created_at DESC, o.order_id DESC LIMIT ?");
+        params.add(q.getLimit() + 1);
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                if (page.getRows().size() == q.getLimit()) {
+                    page.setHasMore(true);
+                    break;
+                }
+                OrderSummary o = mapRowToSummary(rs);
+                o.setCustomerName(rs.getString("full_name"));
+                page.getRows().add(o);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return page;
+    }
+
+    public List<OrderSummary> listOrdersForCustomer(int customerId) {
+        List<OrderSummary> list = new ArrayList<>();
+        String sql = "SELECT order_id, customer_id, status, total_amount, created_at " +
+                "FROM orders WHERE customer_id = ? ORDER BY created_at DESC";
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, customerId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                list.add(mapRowToSummary(rs));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    private static OrderSummary mapRowToSummary(ResultSet rs) throws SQLException {
+        OrderSummary o = new OrderSummary();
+        o.setOrderId(rs.getInt("order_id"));
+        o.setCustomerId(rs.getInt("customer_id"));
+        o.setStatus(rs.getString("status"));
+        o.setTotalCents(Money.fromDecimal(rs.getBigDecimal("total_amount")));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        o.setCreatedAt(createdAt == null ? 0 : createdAt.getTime());
+        return o;
+    }
+
+    public boolean cancelOrder(int orderId, int customerId) {
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            appendEvents(conn, OrderEvent.CANCELLED, null, "order_id = ? AND customer_id = ?",
+                    List.of(orderId, customerId));
+            MySqlSalesReportDAO.subtract(conn, "o.order_id = ? AND o.customer_id = ?", List.of(orderId, customerId));
+            int rows;
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM orders WHERE order_id = ? AND customer_id = ?")) {
+                stmt.setInt(1, orderId);
+                stmt.setInt(2, customerId);
+                rows = stmt.executeUpdate();
+            }
+            conn.commit();
+            return rows > 0; // order deleted (and items via FK)
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean changeOrderStatus(int orderId, String status) {
+        return changeOrderStatus(List.of(orderId), status) > 0;
+    }
+
+    // The transition table goes into the WHERE clause (status IN the allowed previous states),
+    // so an order that moved on meanwhile is simply not matched. A whole morning's backlog is a
+    // few statements per IDS_PER_STATEMENT orders.
+    public int changeOrderStatus(Collection<Integer> orderIds, String status) {
+        if (!OrderStatus.isValid(status)) {
+            new IllegalArgumentException("Unknown order status: " + status).printStackTrace();
+            return -1;
+        }
+        Set<String> from = OrderStatus.allowedFrom(status);
+        if (orderIds.isEmpty() || from.isEmpty()) return 0;
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            int changed = 0;
+            for (int start = 0; start < ids.size(); start += IDS_PER_STATEMENT) {
+                List<Integer> chunk = ids.subList(start, Math.min(start + IDS_PER_STATEMENT, ids.size()));
+                String condition = "status IN (" + placeholders(from.size()) +
+                        ") AND order_id IN (" + placeholders(chunk.size()) + ")";
+                String where = " WHERE " + condition;
+                List<Object> params = new ArrayList<>(from);
+                params.addAll(chunk);
+                // the event rows are written first, locking exactly the orders the UPDATE will change
+                appendEvents(conn, OrderEvent.STATUS_CHANGED, status, condition, params);
+                // a cancelled order no longer counts as a sale
+                if (OrderStatus.CANCELLED.equals(status)) {
+                    MySqlSalesReportDAO.subtract(conn, "o.status IN (" + placeholders(from.size()) +
+                            ") AND o.order_id IN (" + placeholders(chunk.size()) + ")", params);
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("UPDATE orders SET status = ?" + where)) {
+                    int i = 1;
+                    stmt.setString(i++, status);
+                    for (String s : from) stmt.setString(i++, s);
+                    for (int id : chunk) stmt.setInt(i++, id);
+                    changed += stmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return changed;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // ADMIN — Delete an entire order (items removed by FK CASCADE)
+    public boolean deleteOrder(int orderId) {
+        return deleteOrders(List.of(orderId)) > 0;
+    }
+
+    // ADMIN — Delete several orders at once (items removed by FK CASCADE)
+    public int deleteOrders(Collection<Integer> orderIds) {
+        if (orderIds.isEmpty()) return 0;
+
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(orderIds));
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            int deleted = 0;
+            for (int start = 0; start < ids.size(); start += IDS_PER_STATEMENT) {
+                List<Integer> chunk = ids.subList(start, Math.min(start + IDS_PER_STATEMENT, ids.size()));
+                String where = " WHERE order_id IN (" + placeholders(chunk.size()) + ")";
+                appendEvents(conn, OrderEvent.DELETED, null, "order_id IN (" + placeholders(chunk.size()) + ")", chunk);
+                MySqlSalesReportDAO.subtract(conn, "o.order_id IN (" + placeholders(chunk.size()) + ")", chunk);
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM orders" + where)) {
+                    int i = 1;
+                    for (int id : chunk) stmt.setInt(i++, id);
+                    deleted += stmt.executeUpdate();
+                }
+            }
+            conn.commit();
+            return deleted;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // Locks the orders matching 'condition' (FOR UPDATE) and writes an outbox row for each, with
+    // the payload built by OrderEvent like everywhere else: STATUS_CHANGED to 'to', or the
+    // removed form for ORDER_CANCELLED / ORDER_DELETED (to is null). On the caller's transaction,
+    // before the change itself, so the payload shows the order as it was.
+    static void appendEvents(Connection conn, String type, String to, String condition, List<?> params)
+            throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        List<String> payloads = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT order_id, customer_id, status, ROUND(total_amount * 100) AS total_cents FROM orders " +
+                        "WHERE " + condition + " FOR UPDATE")) {
+            for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ids.add(rs.getInt("order_id"));
+                payloads.add(to != null
+                        ? OrderEvent.statusChanged(rs.getInt("customer_id"), rs.getString("status"), to, rs.getLong("total_cents"))
+                        : OrderEvent.removed(rs.getInt("customer_id"), rs.getString("status"), rs.getLong("total_cents")));
+            }
+        }
+
+        for (int start = 0; start < ids.size(); start += IDS_PER_STATEMENT) {
+            int end = Math.min(start + IDS_PER_STATEMENT, ids.size());
+            StringBuilder sql = new StringBuilder("INSERT INTO order_outbox (order_id, event_type, payload) VALUES ");
+            for (int i = start; i < end; i++) sql.append(i == start ? "(?, ?, ?)" : ", (?, ?, ?)");
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int p = 1;
+                for (int i = start; i < end; i++) {
+                    stmt.setInt(p++, ids.get(i));
+                    stmt.setString(p++, type);
+                    stmt.setString(p++, payloads.get(i));
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // Outbox row for OutboxRelay, on the caller's transaction
+    private static void appendEvent(Connection conn, int orderId, String type, String payload) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO order_outbox (order_id, event_type, payload) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, orderId);
+            stmt.setString(2, type);
+            stmt.setString(3, payload);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static String placeholders(int n) {
+        StringBuilder sb = new StringBuilder(n * 3);
+        for (int i = 0; i < n; i++) sb.append(i == 0 ? "?" : ", ?");
+        return sb.toString();
+    }
+}
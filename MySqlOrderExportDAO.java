@@ -0,0 +1,72 @@
+// MySqlOrderExportDAO.java
+import java.io.IOException;
+import java.sql.*;
+
+public class MySqlOrderExportDAO implements OrderExportDAO {
+
+    // how long the server waits for us to take the next rows before giving up on the dump
+    private static final int NET_WRITE_TIMEOUT_SECONDS = Integer.getInteger("store.export.netWriteTimeoutSeconds", 600);
+
+    // orders is read in primary key order and each order's lines come from the covering
+    // idx_order_items_order, so MySQL sends rows as it finds them: no sort, no temporary table.
+    // Amounts arrive as whole cents so no BigDecimal is built per row.
+    private static final String SQL = "SELECT o.order_id, o.created_at, o.customer_id, u.full_name, o.status, " +
+            "ROUND(o.total_amount * 100) AS total_cents, c.code, c.discount_type, " +
+            "ROUND(c.discount_value * 100) AS discount_value, i.product_id, p.name, i.quantity, " +
+            "ROUND(i.unit_price * 100) AS unit_price_cents, ROUND(i.line_total * 100) AS line_total_cents " +
+            "FROM orders o " +
+            "LEFT JOIN users u ON u.user_id = o.customer_id " +
+            "LEFT JOIN coupons c ON c.coupon_id = o.coupon_id " +
+            "LEFT JOIN order_items i ON i.order_id = o.order_id " +
+            "LEFT JOIN products p ON p.product_id = i.product_id " +
+            "ORDER BY o.order_id";
+
+    // Connector/J streams a forward-only, read-only result set row by row when the fetch size is
+    // Integer.MIN_VALUE, instead of reading the whole result into memory first. The connection
+    // can run nothing else until the result set is closed, hence one of its own.
+    public long exportOrders(RowHandler handler) throws IOException {
+        OrderExportRow r = new OrderExportRow();
+        long rows = 0;
+        try (Connection conn = DBConnection.getStreamingConnection()) {
+
+            try (Statement st = conn.createStatement()) {
+                st.execute("SET SESSION net_write_timeout = " + NET_WRITE_TIMEOUT_SECONDS);
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    try {
+                        while (rs.next()) {
+                            r.setOrderId(rs.getInt(1));
+                            Timestamp createdAt = rs.getTimestamp(2);
+                            r.setCreatedAt(createdAt == null ? 0 : createdAt.getTime());
+                            r.setCustomerId(rs.getInt(3));
+                            r.setCustomerName(rs.getString(4));
+                            r.setStatus(rs.getString(5));
+                            r.setTotalCents(rs.getLong(6));
+                            r.setCouponCode(rs.getString(7));
+                            r.setDiscountType(rs.getString(8));
+                            r.setDiscountValue(rs.getLong(9));
+                            r.setProductId(rs.getInt(10));
+                            r.setProductName(rs.getString(11));
+                            r.setQuantity(rs.getInt(12));
+                            r.setUnitPriceCents(rs.getLong(13));
+                            r.setLineTotalCents(rs.getLong(14));
+                            handler.row(r);
+                            rows++;
+                        }
+                    } catch (IOException e) {
+                        // closing a half-read streaming result set would first read the rest of it
+                        conn.abort(Runnable::run);
+                        throw e;
+                    }
+                }
+            }
+            return rows;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,53 @@
+// MySqlOutboxDAO.java
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public class MySqlOutboxDAO implements OutboxDAO {
+
+    // always the primary: a replica may not have the newest events yet
+    public List<OrderEvent> readOutbox(int limit) {
+        List<OrderEvent> list = new ArrayList<>();
+        String sql = "SELECT outbox_id, order_id, event_type, payload, created_at FROM order_outbox " +
+                "ORDER BY outbox_id LIMIT ?";
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                OrderEvent e = new OrderEvent();
+                e.setOutboxId(rs.getLong("outbox_id"));
+                e.setOrderId(rs.getInt("order_id"));
+                e.setType(rs.getString("event_type"));
+                e.setPayload(rs.getString("payload"));
+                Timestamp createdAt = rs.getTimestamp("created_at");
+                e.setCreatedAt(createdAt == null ? 0 : createdAt.getTime());
+                list.add(e);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public boolean deleteOutbox(Collection<Long> outboxIds) {
+        if (outboxIds.isEmpty()) return true;
+        StringBuilder sql = new StringBuilder("DELETE FROM order_outbox WHERE outbox_id IN (");
+        for (int i = 0; i < outboxIds.size(); i++) sql.append(i == 0 ? "?" : ", ?");
+        sql.append(')');
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            int i = 1;
+            for (long id : outboxIds) stmt.setLong(i++, id);
+            stmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
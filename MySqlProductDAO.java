@@ -0,0 +1,319 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+public class MySqlProductDAO implements ProductDAO {
+
+    public boolean createProduct(Product p) {
+        String sql = "INSERT INTO products (name, description, price, stock_quantity, active, image_path) " +
+                "VALUES (?, ?, ?, ?, 1, ?)";
+
+        String imgPath = p.getImagePath();
+        if (imgPath == null || imgPath.isEmpty()) {
+            imgPath = "images/products/placeholder.png";
+        }
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            stmt.setString(1, p.getName());
+            stmt.setString(2, p.getDescription());
+            stmt.setBigDecimal(3, Money.toDecimal(p.getPriceCents()));
+            stmt.setInt(4, p.getStockQuantity());
+            stmt.setString(5, imgPath);
+
+            stmt.executeUpdate();
+
+            ResultSet rs = stmt.getGeneratedKeys();
+            if (rs.next()) {
+                p.setProductId(rs.getInt(1));
+            }
+            return true;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // rows per INSERT ... VALUES (...), (...); keeps statements well under max_allowed_packet
+    private static final int ROWS_PER_INSERT = 100;
+
+    public boolean createProducts(List<Product> products) {
+        if (products.isEmpty()) return true;
+
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            for (int from = 0; from < products.size(); from += ROWS_PER_INSERT) {
+                List<Product> rows = products.subList(from, Math.min(from + ROWS_PER_INSERT, products.size()));
+
+                StringBuilder sql = new StringBuilder(
+                        "INSERT INTO products (name, description, price, stock_quantity, active, image_path) VALUES ");
+                for (int i = 0; i < rows.size(); i++) sql.append(i == 0 ? "(?, ?, ?, ?, 1, ?)" : ", (?, ?, ?, ?, 1, ?)");
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql.toString(), Statement.RETURN_GENERATED_KEYS)) {
+                    int i = 1;
+                    for (Product p : rows) {
+                        String imgPath = p.getImagePath();
+                        if (imgPath == null || imgPath.isEmpty()) {
+                            imgPath = "images/products/placeholder.png";
+                        }
+                        stmt.setString(i++, p.getName());
+                        stmt.setString(i++, p.getDescription());
+                        stmt.setBigDecimal(i++, Money.toDecimal(p.getPriceCents()));
+                        stmt.setInt(i++, p.getStockQuantity());
+                        stmt.setString(i++, imgPath);
+                    }
+                    stmt.executeUpdate();
+
+                    // a multi-row insert returns one generated key per row, in order
+                    ResultSet rs = stmt.getGeneratedKeys();
+                    for (Product p : rows) {
+                        if (rs.next()) p.setProductId(rs.getInt(1));
+                    }
+                }
+            }
+            conn.commit();
+            return true;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public Product findById(int id) {
+        String sql = "SELECT * FROM products WHERE product_id = ? AND active = 1";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, id);
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return mapRowToProduct(rs);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public Map<Integer, Product> findByIds(Collection<Integer> ids) {
+        Map<Integer, Product> map = new HashMap<>();
+        List<Integer> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.isEmpty()) return map;
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM products WHERE product_id IN (");
+        for (int i = 0; i < distinct.size(); i++) sql.append(i == 0 ? "?" : ", ?");
+        sql.append(")");
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            for (int i = 0; i < distinct.size(); i++) stmt.setInt(i + 1, distinct.get(i));
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Product p = mapRowToProduct(rs);
+                map.put(p.getProductId(), p);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return map;
+    }
+
+    public List<Product> listActiveProducts() {
+        List<Product> list = new ArrayList<>();
+        String sql = "SELECT * FROM products WHERE active = 1 ORDER BY product_id DESC";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                list.add(mapRowToProduct(rs));
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public List<ProductSummary> listActiveProducts(int afterId, int limit) {
+        List<ProductSummary> list = new ArrayList<>();
+        // keyset paging: "product_id < last id seen" walks the primary key instead of skipping OFFSET rows;
+        // only the listed columns, the description TEXT stays on the server
+        String sql = "SELECT product_id, name, price, stock_quantity, image_path FROM products " +
+                "WHERE active = 1 AND product_id < ? ORDER BY product_id DESC LIMIT ?";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, afterId > 0 ? afterId : Integer.MAX_VALUE);
+            stmt.setInt(2, limit);
+
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ProductSummary p = new ProductSummary();
+                p.setProductId(rs.getInt("product_id"));
+                p.setName(rs.getString("name"));
+                p.setPriceCents(Money.fromDecimal(rs.getBigDecimal("price")));
+                p.setStockQuantity(rs.getInt("stock_quantity"));
+                p.setImagePath(rs.getString("image_path"));
+                list.add(p);
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public String findDescription(int productId) {
+        String sql = "SELECT description FROM products WHERE product_id = ?";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, productId);
+
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("description");
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public boolean updateStock(int productId, int newStock) {
+        String sql = "UPDATE products SET stock_quantity = ? WHERE product_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, newStock);
+            stmt.setInt(2, productId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean tryDecrementStock(int productId, int qty) {
+        if (qty <= 0) return false;
+        String sql = "UPDATE products SET stock_quantity = stock_quantity - ? " +
+                "WHERE product_id = ? AND stock_quantity >= ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, qty);
+            stmt.setInt(2, productId);
+            stmt.setInt(3, qty);
+            return stmt.executeUpdate() > 0;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public boolean tryDecrementStock(Map<Integer, Integer> quantities) {
+        if (quantities.isEmpty()) return true;
+
+        try (Connection conn = DBConnection.getConnection()) {
+
+            conn.setAutoCommit(false);
+            if (decrementStock(conn, quantities)) {
+                conn.commit();
+                return true;
+            }
+            conn.rollback();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    public void stockDecremented(Map<Integer, Integer> quantities) {
+        // the UPDATE already ran in the caller's transaction
+    }
+
+    // One UPDATE for the whole cart:
+    //   SET stock_quantity = stock_quantity - CASE product_id WHEN ? THEN ? ... END
+    //   WHERE product_id IN (...) AND stock_quantity >= CASE product_id WHEN ? THEN ? ... END
+    // Returns true if every product had enough stock. The caller owns the transaction and must
+    // roll back on false, since the rows that did qualify were already decremented.
+    static boolean decrementStock(Connection conn, Map<Integer, Integer> quantities) throws SQLException {
+        for (int qty : quantities.values()) {
+            if (qty <= 0) return false;
+        }
+        StringBuilder cases = new StringBuilder("CASE product_id");
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < quantities.size(); i++) {
+            cases.append(" WHEN ? THEN ?");
+            in.append(i == 0 ? "?" : ", ?");
+        }
+        cases.append(" END");
+        String sql = "UPDATE products SET stock_quantity = stock_quantity - " + cases +
+                " WHERE product_id IN (" + in + ") AND stock_quantity >= " + cases;
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+                stmt.setInt(i++, e.getKey());
+                stmt.setInt(i++, e.getValue());
+            }
+            for (Integer id : quantities.keySet()) stmt.setInt(i++, id);
+            for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+                stmt.setInt(i++, e.getKey());
+                stmt.setInt(i++, e.getValue());
+            }
+            return stmt.executeUpdate() == quantities.size();
+        }
+    }
+
+    public boolean deleteProduct(int productId) {
+        String sql = "UPDATE products SET active = 0 WHERE product_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, productId);
+            return stmt.executeUpdate() > 0;
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    static Product mapRowToProduct(ResultSet rs) throws SQLException {
+        Product p = new Product();
+        p.setProductId(rs.getInt("product_id"));
+        p.setName(rs.getString("name"));
+        p.setDescription(rs.getString("description"));
+        p.setPriceCents(Money.fromDecimal(rs.getBigDecimal("price")));
+        p.setStockQuantity(rs.getInt("stock_quantity"));
+        p.setActive(rs.getBoolean("active"));
+        p.setImagePath(rs.getString("image_path"));
+        return p;
+    }
+}
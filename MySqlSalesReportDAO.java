@@ -0,0 +1,241 @@
+// MySqlSalesReportDAO.java
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class MySqlSalesReportDAO implements SalesReportDAO {
+
+    // sales_daily rows per day (see migrations/V4__sales_aggregates.sql)
+    static final int SLOTS = 16;
+    private static final int ROWS_PER_INSERT = 500;
+
+    private static final String ADD_DAILY = " ON DUPLICATE KEY UPDATE orders = orders + VALUES(orders), " +
+            "units = units + VALUES(units), revenue_cents = revenue_cents + VALUES(revenue_cents)";
+    private static final String ADD_PRODUCT = " ON DUPLICATE KEY UPDATE units = units + VALUES(units), " +
+            "revenue_cents = revenue_cents + VALUES(revenue_cents)";
+
+    // Summing the day's slots is a range read on the primary key (day, slot)
+    public List<DailySales> dailySales(LocalDate from, LocalDate to) {
+        List<DailySales> list = new ArrayList<>();
+        String sql = "SELECT day, SUM(orders) AS orders, SUM(units) AS units, SUM(revenue_cents) AS revenue " +
+                "FROM sales_daily WHERE day BETWEEN ? AND ? GROUP BY day HAVING SUM(orders) <> 0 ORDER BY day";
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                DailySales d = new DailySales();
+                d.setDay(rs.getDate("day").toLocalDate());
+                d.setOrders(rs.getLong("orders"));
+                d.setUnits(rs.getLong("units"));
+                d.setRevenueCents(rs.getLong("revenue"));
+                list.add(d);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    public List<ProductSales> topProducts(int limit) {
+        List<ProductSales> list = new ArrayList<>();
+        String sql = "SELECT s.product_id, p.name, s.units, s.revenue_cents FROM sales_by_product s " +
+                "JOIN products p ON p.product_id = s.product_id " +
+                "WHERE s.units > 0 ORDER BY s.revenue_cents DESC LIMIT ?";
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, limit);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                ProductSales p = new ProductSales();
+                p.setProductId(rs.getInt("product_id"));
+                p.setProductName(rs.getString("name"));
+                p.setUnits(rs.getLong("units"));
+                p.setRevenueCents(rs.getLong("revenue_cents"));
+                list.add(p);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return list;
+    }
+
+    // One transaction on a maintenance connection (it may well outlast a pooled call's deadline):
+    //  1. lock every row and gap of both aggregate tables (FOR UPDATE), so checkouts, cancels and
+    //     deletes wait at their own update of the totals until this commits;
+    //  2. only then read the history. The REPEATABLE READ snapshot starts at this first plain read,
+    //     so it holds exactly the order changes whose totals updates committed before step 1; the
+    //     ones still waiting add their deltas on top of the new totals afterwards;
+    //  3. replace the aggregates (all in slot 0) and commit.
+    // The history reads are plain consistent reads, so they lock no orders rows. A checkout that
+    // waits longer than the pool's query timeout fails and rolls back, as on any other lock wait.
+    public boolean rebuild() {
+        try (Connection conn = DBConnection.getMaintenanceConnection()) {
+
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setAutoCommit(false);
+            try {
+                // the rows themselves aren't needed, only the locks
+                try (Statement st = conn.createStatement()) {
+                    st.executeQuery("SELECT day FROM sales_daily FOR UPDATE");
+                    st.executeQuery("SELECT product_id FROM sales_by_product FOR UPDATE");
+                }
+                TreeMap<LocalDate, long[]> daily = new TreeMap<>();
+                TreeMap<Integer, long[]> products = new TreeMap<>();
+                sumHistory(conn, daily, products);
+                replace(conn, daily, products);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // The history grouped by the server: per day {orders, units, revenue}, per product {units, revenue}
+    private static void sumHistory(Connection conn, Map<LocalDate, long[]> daily, Map<Integer, long[]> products)
+            throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            ResultSet rs = st.executeQuery(
+                    "SELECT DATE(created_at) AS day, COUNT(*) AS orders, SUM(ROUND(total_amount * 100)) AS revenue " +
+                            "FROM orders WHERE status <> 'CANCELLED' GROUP BY DATE(created_at)");
+            while (rs.next()) {
+                long[] d = daily.computeIfAbsent(rs.getDate("day").toLocalDate(), k -> new long[3]);
+                d[0] = rs.getLong("orders");
+                d[2] = rs.getLong("revenue");
+            }
+
+            rs = st.executeQuery(
+                    "SELECT DATE(o.created_at) AS day, SUM(i.quantity) AS units FROM orders o " +
+                            "JOIN order_items i ON i.order_id = o.order_id " +
+                            "WHERE o.status <> 'CANCELLED' GROUP BY DATE(o.created_at)");
+            while (rs.next()) {
+                daily.computeIfAbsent(rs.getDate("day").toLocalDate(), k -> new long[3])[1] = rs.getLong("units");
+            }
+
+            rs = st.executeQuery(
+                    "SELECT i.product_id, SUM(i.quantity) AS units, SUM(ROUND(i.line_total * 100)) AS revenue " +
+                            "FROM orders o JOIN order_items i ON i.order_id = o.order_id " +
+                            "WHERE o.status <> 'CANCELLED' GROUP BY i.product_id");
+            while (rs.next()) {
+                products.put(rs.getInt("product_id"), new long[]{rs.getLong("units"), rs.getLong("revenue")});
+            }
+        }
+    }
+
+    // Empties both tables and writes the recomputed totals, on the caller's transaction
+    private static void replace(Connection conn, TreeMap<LocalDate, long[]> daily,
+                                TreeMap<Integer, long[]> products) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("DELETE FROM sales_daily");
+            st.executeUpdate("DELETE FROM sales_by_product");
+        }
+
+        List<Map.Entry<LocalDate, long[]>> days = new ArrayList<>(daily.entrySet());
+        for (int from = 0; from < days.size(); from += ROWS_PER_INSERT) {
+            List<Map.Entry<LocalDate, long[]>> rows = days.subList(from, Math.min(from + ROWS_PER_INSERT, days.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO sales_daily (day, slot, orders, units, revenue_cents) VALUES ");
+            for (int i = 0; i < rows.size(); i++) sql.append(i == 0 ? "(?, 0, ?, ?, ?)" : ", (?, 0, ?, ?, ?)");
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int i = 1;
+                for (Map.Entry<LocalDate, long[]> e : rows) {
+                    stmt.setDate(i++, Date.valueOf(e.getKey()));
+                    stmt.setLong(i++, e.getValue()[0]);
+                    stmt.setLong(i++, e.getValue()[1]);
+                    stmt.setLong(i++, e.getValue()[2]);
+                }
+                stmt.executeUpdate();
+            }
+        }
+
+        List<Map.Entry<Integer, long[]>> rowsByProduct = new ArrayList<>(products.entrySet());
+        for (int from = 0; from < rowsByProduct.size(); from += ROWS_PER_INSERT) {
+            List<Map.Entry<Integer, long[]>> rows =
+                    rowsByProduct.subList(from, Math.min(from + ROWS_PER_INSERT, rowsByProduct.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO sales_by_product (product_id, units, revenue_cents) VALUES ");
+            for (int i = 0; i < rows.size(); i++) sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                int i = 1;
+                for (Map.Entry<Integer, long[]> e : rows) {
+                    stmt.setInt(i++, e.getKey());
+                    stmt.setLong(i++, e.getValue()[0]);
+                    stmt.setLong(i++, e.getValue()[1]);
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    // Incremental maintenance, on the caller's transaction (MySqlOrderDAO, MySqlUserDAO)
+
+    // A just-inserted order and its lines. Product rows are touched in id order so two
+    // checkouts can't deadlock on them.
+    static void addOrder(Connection conn, int orderId, List<OrderItem> lines) throws SQLException {
+        long units = 0;
+        TreeMap<Integer, long[]> byProduct = new TreeMap<>();
+        for (OrderItem it : lines) {
+            units += it.getQuantity();
+            long[] p = byProduct.computeIfAbsent(it.getProductId(), k -> new long[2]);
+            p[0] += it.getQuantity();
+            p[1] += it.getLineTotalCents();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO sales_daily (day, slot, orders, units, revenue_cents) " +
+                        "SELECT DATE(created_at), order_id % " + SLOTS + ", 1, ?, ROUND(total_amount * 100) " +
+                        "FROM orders WHERE order_id = ?" + ADD_DAILY)) {
+            stmt.setLong(1, units);
+            stmt.setInt(2, orderId);
+            stmt.executeUpdate();
+        }
+        if (byProduct.isEmpty()) return;
+
+        StringBuilder sql = new StringBuilder("INSERT INTO sales_by_product (product_id, units, revenue_cents) VALUES ");
+        for (int i = 0; i < byProduct.size(); i++) sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.append(ADD_PRODUCT).toString())) {
+            int i = 1;
+            for (Map.Entry<Integer, long[]> e : byProduct.entrySet()) {
+                stmt.setInt(i++, e.getKey());
+                stmt.setLong(i++, e.getValue()[0]);
+                stmt.setLong(i++, e.getValue()[1]);
+            }
+            stmt.executeUpdate();
+        }
+    }
+
+    // Takes the orders matching 'condition' (on "orders o") out of the totals; call it before
+    // they are cancelled or deleted. Orders already cancelled were taken out back then.
+    // INSERT ... SELECT ... ON DUPLICATE KEY UPDATE applies each selected row in turn, so
+    // several orders of the same day or product simply add up.
+    static void subtract(Connection conn, String condition, List<?> params) throws SQLException {
+        String where = " WHERE " + condition + " AND o.status <> 'CANCELLED'";
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO sales_daily (day, slot, orders, units, revenue_cents) " +
+                        "SELECT DATE(o.created_at), o.order_id % " + SLOTS + ", -1, " +
+                        "-(SELECT COALESCE(SUM(i.quantity), 0) FROM order_items i WHERE i.order_id = o.order_id), " +
+                        "-ROUND(o.total_amount * 100) FROM orders o" + where + ADD_DAILY)) {
+            for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+            stmt.executeUpdate();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO sales_by_product (product_id, units, revenue_cents) " +
+                        "SELECT i.product_id, -i.quantity, -ROUND(i.line_total * 100) " +
+                        "FROM orders o JOIN order_items i ON i.order_id = o.order_id" + where +
+                        " ORDER BY i.product_id" + ADD_PRODUCT)) {
+            for (int i = 0; i < params.size(); i++) stmt.setObject(i + 1, params.get(i));
+            stmt.executeUpdate();
+        }
+    }
+}
@@ -7,7 +7,7 @@ public class Order {
     private int customerId;
     private Integer couponId;
     private String status;
-    private double totalAmount;
+    private long totalAmountCents;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private List<OrderItem> items;
@@ -24,8 +24,8 @@ public class Order {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
-    public double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public long getTotalAmountCents() { return totalAmountCents; }
+    public void setTotalAmountCents(long totalAmountCents) { this.totalAmountCents = totalAmountCents; }
 
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
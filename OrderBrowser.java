@@ -0,0 +1,137 @@
+// OrderBrowser.java
+import javax.swing.*;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Staff order list (EmployeePanel and AdminPanel "Orders" tabs): a filter bar over a table that
+// is filled a page at a time through OrderDAO.findOrders as the user scrolls, never all at once.
+// Filtering happens in the query, so only matching orders ever leave the database.
+public class OrderBrowser extends JPanel {
+
+    private static final int PAGE_SIZE = 100;
+    private static final String ANY = "Any";
+
+    private final OrderDAO dao;
+    private final OrderTableModel model = new OrderTableModel(true);
+    private final JTable table = new JTable(model);
+
+    private final JComboBox<String> statusF = new JComboBox<>(statusChoices());
+    private final JTextField fromF = new JTextField(8);
+    private final JTextField toF = new JTextField(8);
+    private final JTextField customerF = new JTextField(10);
+    private final JTextField minF = new JTextField(5);
+    private final JTextField maxF = new JTextField(5);
+
+    private OrderQuery query = new OrderQuery();
+    private OrderPage last;
+    private boolean loading;   // adding rows fires the viewport listener again
+
+    public OrderBrowser(OrderDAO dao) {
+        super(new BorderLayout(4, 4));
+        this.dao = dao;
+
+        JPanel filters = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 2));
+        filters.add(new JLabel("Status:"));
+        filters.add(statusF);
+        filters.add(new JLabel("From:"));
+        filters.add(fromF);
+        filters.add(new JLabel("To:"));
+        filters.add(toF);
+        filters.add(new JLabel("Customer:"));
+        filters.add(customerF);
+        filters.add(new JLabel("Total $"));
+        filters.add(minF);
+        filters.add(new JLabel("-"));
+        filters.add(maxF);
+        JButton apply = new JButton("Apply");
+        apply.addActionListener(e -> applyFilters());
+        filters.add(apply);
+        fromF.setToolTipText("yyyy-mm-dd");
+        toF.setToolTipText("yyyy-mm-dd (inclusive)");
+        customerF.setToolTipText("Start of the customer's name");
+        add(filters, BorderLayout.NORTH);
+
+        model.attach(table, ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        JScrollPane scroll = new JScrollPane(table);
+        add(scroll, BorderLayout.CENTER);
+
+        // fetch the next page once the user is within half a page of the end
+        scroll.getViewport().addChangeListener(e -> {
+            Rectangle view = scroll.getViewport().getViewRect();
+            int lastVisible = table.rowAtPoint(new Point(0, view.y + view.height - 1));
+            if (lastVisible < 0 || lastVisible >= model.getRowCount() - PAGE_SIZE / 2) loadNextPage();
+        });
+    }
+
+    // Called with the order the user clicks on (not while several rows are selected)
+    public void onSelect(Consumer<OrderSummary> action) {
+        table.getSelectionModel().addListSelectionListener(e -> {
+            if (e.getValueIsAdjusting() || table.getSelectedRowCount() != 1) return;
+            OrderSummary o = model.getSelectedOrder(table);
+            if (o != null) action.accept(o);
+        });
+    }
+
+    // Rows picked with Ctrl/Shift-click, for bulk actions
+    public List<OrderSummary> getSelectedOrders() {
+        return model.getSelectedOrders(table);
+    }
+
+    // Back to the first page with the current filters (after a status change, delete, ...)
+    public void reload() {
+        model.clear();
+        last = null;
+        loadNextPage();
+    }
+
+    private void applyFilters() {
+        OrderQuery q = new OrderQuery();
+        try {
+            String status = (String) statusF.getSelectedItem();
+            if (!ANY.equals(status)) q.setStatus(status);
+            if (!fromF.getText().trim().isEmpty()) q.setCreatedFrom(startOfDay(LocalDate.parse(fromF.getText().trim())));
+            if (!toF.getText().trim().isEmpty()) q.setCreatedTo(startOfDay(LocalDate.parse(toF.getText().trim()).plusDays(1)));
+            if (!customerF.getText().trim().isEmpty()) q.setCustomerName(customerF.getText().trim());
+            if (!minF.getText().trim().isEmpty()) q.setMinTotalCents(Money.parse(minF.getText()));
+            if (!maxF.getText().trim().isEmpty()) q.setMaxTotalCents(Money.parse(maxF.getText()));
+        } catch (DateTimeParseException | NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this,
+                    "Dates are yyyy-mm-dd and totals are amounts like 25 or 19.99.",
+                    "Filter", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        query = q;
+        reload();
+    }
+
+    private void loadNextPage() {
+        if (loading || (last != null && !last.hasMore())) return;
+        loading = true;
+        try {
+            query.setLimit(PAGE_SIZE);
+            OrderSummary after = last == null ? null : last.getLast();
+            query.setAfter(after == null ? null : after.getCreatedAt(), after == null ? 0 : after.getOrderId());
+            OrderPage page = dao.findOrders(query);
+            last = page;
+            model.addRows(page.getRows());
+        } finally {
+            loading = false;
+        }
+    }
+
+    private static String[] statusChoices() {
+        List<String> choices = new ArrayList<>();
+        choices.add(ANY);
+        choices.addAll(OrderStatus.ALL);
+        return choices.toArray(new String[0]);
+    }
+
+    private static long startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,53 @@
+// OrderDetail.java
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Everything the order-detail dialogs show: the lines with their product names and the coupon,
+// if one was used. Immutable - order lines don't change once placed - so one instance can be
+// cached and handed to every caller.
+public final class OrderDetail {
+
+    public static final class Line {
+        private final int productId;
+        private final String productName;
+        private final int quantity;
+        private final long unitPriceCents;
+        private final long lineTotalCents;
+
+        public Line(int productId, String productName, int quantity, long unitPriceCents, long lineTotalCents) {
+            this.productId = productId;
+            this.productName = productName;
+            this.quantity = quantity;
+            this.unitPriceCents = unitPriceCents;
+            this.lineTotalCents = lineTotalCents;
+        }
+
+        public int getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public int getQuantity() { return quantity; }
+        public long getUnitPriceCents() { return unitPriceCents; }
+        public long getLineTotalCents() { return lineTotalCents; }
+    }
+
+    private final int orderId;
+    private final List<Line> lines;
+    private final String couponCode;          // null when no coupon was used
+    private final String couponType;          // PERCENT or FIXED
+    private final long couponHundredths;      // see Money
+
+    public OrderDetail(int orderId, List<Line> lines, String couponCode, String couponType, long couponHundredths) {
+        this.orderId = orderId;
+        this.lines = Collections.unmodifiableList(new ArrayList<>(lines));
+        this.couponCode = couponCode;
+        this.couponType = couponType;
+        this.couponHundredths = couponHundredths;
+    }
+
+    public int getOrderId() { return orderId; }
+    public List<Line> getLines() { return lines; }
+    public boolean hasCoupon() { return couponCode != null; }
+    public String getCouponCode() { return couponCode; }
+    public String getCouponType() { return couponType; }
+    public long getCouponHundredths() { return couponHundredths; }
+}
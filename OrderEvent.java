@@ -0,0 +1,78 @@
+// OrderEvent.java
+import java.util.List;
+
+// Something that happened to an order, as written to the order_outbox table by OrderDAO in the
+// same transaction as the change itself, and later copied into the EventLog by OutboxRelay.
+//
+// The payload is a small JSON object whose fields depend on the type:
+//   ORDER_PLACED     {"customerId":3,"couponId":null,"totalCents":4598,
+//                     "lines":[{"productId":7,"quantity":2,"unitPriceCents":2299}]}
+//   STATUS_CHANGED   {"customerId":3,"from":"PROCESSING","to":"SHIPPED","totalCents":4598}
+//   ORDER_CANCELLED  {"customerId":3,"status":"PENDING","totalCents":4598}   (customer deleted it)
+//   ORDER_DELETED    {"customerId":3,"status":"SHIPPED","totalCents":4598}   (admin deleted it)
+// Both engines build every payload with the methods below; this class is the one definition.
+public class OrderEvent {
+
+    public static final String PLACED = "ORDER_PLACED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+    public static final String CANCELLED = "ORDER_CANCELLED";
+    public static final String DELETED = "ORDER_DELETED";
+
+    private long sequence;      // position in the EventLog; 0 while still in the outbox
+    private long outboxId;
+    private int orderId;
+    private String type;
+    private String payload;
+    private long createdAt;     // epoch millis
+
+    public long getSequence() { return sequence; }
+    public void setSequence(long sequence) { this.sequence = sequence; }
+
+    public long getOutboxId() { return outboxId; }
+    public void setOutboxId(long outboxId) { this.outboxId = outboxId; }
+
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + " order " + orderId + " " + payload;
+    }
+
+    // Payload builders
+
+    public static String placed(int customerId, Integer couponId, long totalCents, List<OrderItem> lines) {
+        StringBuilder sb = new StringBuilder(96 + lines.size() * 48);
+        sb.append("{\"customerId\":").append(customerId)
+                .append(",\"couponId\":").append(couponId)
+                .append(",\"totalCents\":").append(totalCents)
+                .append(",\"lines\":[");
+        for (int i = 0; i < lines.size(); i++) {
+            OrderItem it = lines.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"productId\":").append(it.getProductId())
+                    .append(",\"quantity\":").append(it.getQuantity())
+                    .append(",\"unitPriceCents\":").append(it.getUnitPriceCents()).append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    public static String statusChanged(int customerId, String from, String to, long totalCents) {
+        return "{\"customerId\":" + customerId + ",\"from\":\"" + from + "\",\"to\":\"" + to +
+                "\",\"totalCents\":" + totalCents + "}";
+    }
+
+    // ORDER_CANCELLED and ORDER_DELETED
+    public static String removed(int customerId, String status, long totalCents) {
+        return "{\"customerId\":" + customerId + ",\"status\":\"" + status + "\",\"totalCents\":" + totalCents + "}";
+    }
+}
@@ -0,0 +1,18 @@
+// OrderExportDAO.java
+import java.io.IOException;
+
+// Full order dump for OrderExporter: every order with its customer, coupon and lines, streamed
+// one row at a time instead of collected into a list. Implemented by MySqlOrderExportDAO and
+// EmbeddedOrderExportDAO.
+public interface OrderExportDAO {
+
+    // Receives the rows; the same OrderExportRow is refilled for every call
+    interface RowHandler {
+        void row(OrderExportRow r) throws IOException;
+    }
+
+    // Calls the handler once per order line, ordered by order id, so an order's lines arrive
+    // together (an order without lines gets one row with productId 0). Returns the number of
+    // rows, or -1 if the database failed; an IOException from the handler stops the export.
+    long exportOrders(RowHandler handler) throws IOException;
+}
@@ -0,0 +1,72 @@
+// OrderExportRow.java
+
+// One row of OrderExportDAO.exportOrders: an order line with its order, customer and coupon.
+// The DAO fills the same instance for every row, so an export of any size allocates no rows;
+// handlers copy whatever they want to keep.
+public class OrderExportRow {
+    private int orderId;
+    private long createdAt;
+    private int customerId;
+    private String customerName;
+    private String status;
+    private long totalCents;
+
+    // coupon (code is null when the order has none)
+    private String couponCode;
+    private String discountType;
+    private long discountValue;
+
+    // line (productId is 0 for an order without lines)
+    private int productId;
+    private String productName;
+    private int quantity;
+    private long unitPriceCents;
+    private long lineTotalCents;
+
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+
+    public int getCustomerId() { return customerId; }
+    public void setCustomerId(int customerId) { this.customerId = customerId; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getTotalCents() { return totalCents; }
+    public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+
+    public String getCouponCode() { return couponCode; }
+    public void setCouponCode(String couponCode) { this.couponCode = couponCode; }
+
+    public String getDiscountType() { return discountType; }
+    public void setDiscountType(String discountType) { this.discountType = discountType; }
+
+    // hundredths of a percent or cents, depending on discountType (see Money)
+    public long getDiscountValue() { return discountValue; }
+    public void setDiscountValue(long discountValue) { this.discountValue = discountValue; }
+
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public long getUnitPriceCents() { return unitPriceCents; }
+    public void setUnitPriceCents(long unitPriceCents) { this.unitPriceCents = unitPriceCents; }
+
+    public long getLineTotalCents() { return lineTotalCents; }
+    public void setLineTotalCents(long lineTotalCents) { this.lineTotalCents = lineTotalCents; }
+
+    public boolean hasLine() {
+        return productId != 0;
+    }
+}
@@ -0,0 +1,275 @@
+// OrderExporter.java
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+// Full order dump for finance: every order with its customer, coupon and lines, as CSV (one
+// line per order line) or NDJSON (one object per order with a "lines" array), chosen by the
+// file extension.
+//
+// Rows come from OrderExportDAO one at a time and are formatted into one reused StringBuilder,
+// encoded to UTF-8 straight into one reused direct ByteBuffer (-Dstore.export.bufferBytes,
+// default 256 KB) and written to a FileChannel whenever the buffer fills. Nothing grows with the
+// size of the export, so a million orders need the same heap as ten. The file is written as
+// <name>.part and renamed when complete, so a failed export never leaves a file that looks whole.
+public class OrderExporter {
+
+    private static final int BUFFER_BYTES = Integer.getInteger("store.export.bufferBytes", 256 * 1024);
+    private static final int PROGRESS_EVERY = 10_000; // orders
+    private static final DateTimeFormatter CREATED_AT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+    private static final String CSV_HEADER = "order_id,created_at,customer_id,customer_name,status,order_total," +
+            "coupon_code,discount_type,discount_value,product_id,product_name,quantity,unit_price,line_total\n";
+
+    private final OrderExportDAO dao;
+
+    // Called every PROGRESS_EVERY orders (on the exporting thread)
+    public interface Progress {
+        void update(Report report);
+    }
+
+    public static class Report {
+        long orders;
+        long lines;
+        long bytes;
+        long elapsedMillis;
+
+        public long getOrders() { return orders; }
+        public long getLines() { return lines; }
+        public long getBytes() { return bytes; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return String.format("%d orders, %d lines, %.1f MB (%.1f s)",
+                    orders, lines, bytes / (1024.0 * 1024.0), elapsedMillis / 1000.0);
+        }
+    }
+
+    public OrderExporter(OrderExportDAO dao) {
+        this.dao = dao;
+    }
+
+    public static boolean isNdjson(File target) {
+        String name = target.getName().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json");
+    }
+
+    public Report export(File target, Progress progress) throws IOException {
+        long started = System.currentTimeMillis();
+        Path part = target.toPath().resolveSibling(target.getName() + ".part");
+        Report report = new Report();
+        boolean ndjson = isNdjson(target);
+
+        try (ChannelWriter out = new ChannelWriter(FileChannel.open(part, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            if (!ndjson) out.sb.append(CSV_HEADER);
+
+            int[] lastOrder = {0};
+            long rows = dao.exportOrders(r -> {
+                boolean newOrder = r.getOrderId() != lastOrder[0];
+                if (newOrder) {
+                    if (ndjson && lastOrder[0] != 0) out.sb.append("]}\n");
+                    lastOrder[0] = r.getOrderId();
+                    report.orders++;
+                    if (report.orders % PROGRESS_EVERY == 0 && progress != null) {
+                        report.bytes = out.size();
+                        report.elapsedMillis = System.currentTimeMillis() - started;
+                        progress.update(report);
+                    }
+                }
+                if (r.hasLine()) report.lines++;
+                if (ndjson) {
+                    appendJson(out.sb, r, newOrder);
+                } else {
+                    appendCsv(out.sb, r);
+                }
+                out.drainIfFull();
+            });
+            if (rows < 0) throw new IOException("Reading the orders failed (see the log)");
+            if (ndjson && lastOrder[0] != 0) out.sb.append("]}\n");
+            out.finish();
+            report.bytes = out.written;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+        Files.move(part, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        report.elapsedMillis = System.currentTimeMillis() - started;
+        if (progress != null) progress.update(report);
+        return report;
+    }
+
+    private static void appendCsv(StringBuilder sb, OrderExportRow r) {
+        sb.append(r.getOrderId()).append(',');
+        CREATED_AT.formatTo(Instant.ofEpochMilli(r.getCreatedAt()), sb);
+        sb.append(',').append(r.getCustomerId()).append(',');
+        csvField(sb, r.getCustomerName()).append(',');
+        csvField(sb, r.getStatus()).append(',');
+        Money.appendTo(sb, r.getTotalCents()).append(',');
+        if (r.getCouponCode() != null) {
+            csvField(sb, r.getCouponCode()).append(',');
+            csvField(sb, r.getDiscountType()).append(',');
+            Money.appendTo(sb, r.getDiscountValue());
+        } else {
+            sb.append(",,");
+        }
+        sb.append(',');
+        if (r.hasLine()) {
+            sb.append(r.getProductId()).append(',');
+            csvField(sb, r.getProductName()).append(',').append(r.getQuantity()).append(',');
+            Money.appendTo(sb, r.getUnitPriceCents()).append(',');
+            Money.appendTo(sb, r.getLineTotalCents());
+        } else {
+            sb.append(",,,,");
+        }
+        sb.append('\n');
+    }
+
+    // RFC 4180: quoted only when needed, quotes doubled (what ProductImporter reads back)
+    private static StringBuilder csvField(StringBuilder sb, String s) {
+        if (s == null) return sb;
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) return sb.append(s);
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"') sb.append('"');
+            sb.append(c);
+        }
+        return sb.append('"');
+    }
+
+    // The order's fields on its first row, then one element of "lines" per row; the caller
+    // closes the array when the next order starts
+    private static void appendJson(StringBuilder sb, OrderExportRow r, boolean newOrder) {
+        if (newOrder) {
+            sb.append("{\"orderId\":").append(r.getOrderId()).append(",\"createdAt\":\"");
+            CREATED_AT.formatTo(Instant.ofEpochMilli(r.getCreatedAt()), sb);
+            sb.append("\",\"customerId\":").append(r.getCustomerId()).append(",\"customerName\":");
+            jsonString(sb, r.getCustomerName()).append(",\"status\":");
+            jsonString(sb, r.getStatus()).append(",\"total\":");
+            Money.appendTo(sb, r.getTotalCents()).append(",\"coupon\":");
+            if (r.getCouponCode() == null) {
+                sb.append("null");
+            } else {
+                sb.append("{\"code\":");
+                jsonString(sb, r.getCouponCode()).append(",\"discountType\":");
+                jsonString(sb, r.getDiscountType()).append(",\"discountValue\":");
+                Money.appendTo(sb, r.getDiscountValue()).append('}');
+            }
+            sb.append(",\"lines\":[");
+        } else if (r.hasLine()) {
+            sb.append(',');
+        }
+        if (!r.hasLine()) return;
+        sb.append("{\"productId\":").append(r.getProductId()).append(",\"productName\":");
+        jsonString(sb, r.getProductName()).append(",\"quantity\":").append(r.getQuantity()).append(",\"unitPrice\":");
+        Money.appendTo(sb, r.getUnitPriceCents()).append(",\"lineTotal\":");
+        Money.appendTo(sb, r.getLineTotalCents()).append('}');
+    }
+
+    private static StringBuilder jsonString(StringBuilder sb, String s) {
+        if (s == null) return sb.append("null");
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c == '\n') {
+                sb.append("\\n");
+            } else if (c == '\r') {
+                sb.append("\\r");
+            } else if (c == '\t') {
+                sb.append("\\t");
+            } else if (c < 0x20) {
+                sb.append("\\u00");
+                sb.append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 0xF, 16));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"');
+    }
+
+    // Text goes into sb; drainIfFull encodes it into the byte buffer once a few KB are pending
+    // and the channel is written only when the byte buffer is full
+    private static class ChannelWriter implements AutoCloseable {
+        private static final int PENDING_CHARS = 8 * 1024;
+
+        final StringBuilder sb = new StringBuilder(PENDING_CHARS + 1024);
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect(Math.max(4096, BUFFER_BYTES));
+        long written;
+
+        ChannelWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        long size() {
+            return written + buf.position() + sb.length();
+        }
+
+        void drainIfFull() throws IOException {
+            if (sb.length() >= PENDING_CHARS) encode();
+        }
+
+        void finish() throws IOException {
+            encode();
+            writeBuffer();
+            channel.force(false);
+        }
+
+        // UTF-8 by hand, so no byte[] or CharBuffer is created per row
+        private void encode() throws IOException {
+            for (int i = 0; i < sb.length(); i++) {
+                if (buf.remaining() < 4) writeBuffer();
+                char c = sb.charAt(i);
+                if (c < 0x80) {
+                    buf.put((byte) c);
+                } else if (c < 0x800) {
+                    buf.put((byte) (0xC0 | (c >> 6)));
+                    buf.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < sb.length()
+                        && Character.isLowSurrogate(sb.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, sb.charAt(++i));
+                    buf.put((byte) (0xF0 | (cp >> 18)));
+                    buf.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    buf.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    buf.put((byte) (0x80 | (cp & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    buf.put((byte) '?'); // unpaired surrogate, as String.getBytes would
+                } else {
+                    buf.put((byte) (0xE0 | (c >> 12)));
+                    buf.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buf.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+            sb.setLength(0);
+        }
+
+        private void writeBuffer() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) written += channel.write(buf);
+            buf.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -4,8 +4,8 @@ public class OrderItem {
     private int orderId;
     private int productId;
     private int quantity;
-    private double unitPrice;
-    private double lineTotal;
+    private long unitPriceCents;
+    private long lineTotalCents;
 
     public int getOrderItemId() { return orderItemId; }
     public void setOrderItemId(int orderItemId) { this.orderItemId = orderItemId; }
@@ -19,9 +19,9 @@ public class OrderItem {
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
 
-    public double getUnitPrice() { return unitPrice; }
-    public void setUnitPrice(double unitPrice) { this.unitPrice = unitPrice; }
+    public long getUnitPriceCents() { return unitPriceCents; }
+    public void setUnitPriceCents(long unitPriceCents) { this.unitPriceCents = unitPriceCents; }
 
-    public double getLineTotal() { return lineTotal; }
-    public void setLineTotal(double lineTotal) { this.lineTotal = lineTotal; }
+    public long getLineTotalCents() { return lineTotalCents; }
+    public void setLineTotalCents(long lineTotalCents) { this.lineTotalCents = lineTotalCents; }
 }
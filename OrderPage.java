@@ -0,0 +1,19 @@
+// OrderPage.java
+import java.util.ArrayList;
+import java.util.List;
+
+// One page of OrderDAO.findOrders: the rows plus whether another page follows.
+// The next page starts after the last row (see OrderQuery.setAfter).
+public class OrderPage {
+    private final List<OrderSummary> rows = new ArrayList<>();
+    private boolean hasMore;
+
+    public List<OrderSummary> getRows() { return rows; }
+
+    public boolean hasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public OrderSummary getLast() {
+        return rows.isEmpty() ? null : rows.get(rows.size() - 1);
+    }
+}
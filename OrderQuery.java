@@ -0,0 +1,54 @@
+// OrderQuery.java
+
+// Filters and position for OrderDAO.findOrders. Every filter is optional (null = any).
+//
+// Orders come newest first, ordered by (created_at, order_id). Paging is by keyset: pass the
+// created_at/order_id of the last row you have (OrderPage.getLast) and the next page starts
+// right after it, so page 1000 costs the same as page 1 and rows inserted meanwhile don't
+// shift anything.
+public class OrderQuery {
+    private String status;
+    private Long createdFrom;      // epoch millis, inclusive
+    private Long createdTo;        // epoch millis, exclusive
+    private Integer customerId;
+    private String customerName;   // prefix of the customer's full name, any case
+    private Long minTotalCents;
+    private Long maxTotalCents;
+
+    private Long afterCreatedAt;
+    private int afterOrderId;
+    private int limit = 100;
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(Long createdFrom) { this.createdFrom = createdFrom; }
+
+    public Long getCreatedTo() { return createdTo; }
+    public void setCreatedTo(Long createdTo) { this.createdTo = createdTo; }
+
+    public Integer getCustomerId() { return customerId; }
+    public void setCustomerId(Integer customerId) { this.customerId = customerId; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public Long getMinTotalCents() { return minTotalCents; }
+    public void setMinTotalCents(Long minTotalCents) { this.minTotalCents = minTotalCents; }
+
+    public Long getMaxTotalCents() { return maxTotalCents; }
+    public void setMaxTotalCents(Long maxTotalCents) { this.maxTotalCents = maxTotalCents; }
+
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+
+    // Start after this row; null afterCreatedAt starts from the newest order
+    public Long getAfterCreatedAt() { return afterCreatedAt; }
+    public int getAfterOrderId() { return afterOrderId; }
+
+    public void setAfter(Long createdAt, int orderId) {
+        this.afterCreatedAt = createdAt;
+        this.afterOrderId = orderId;
+    }
+}
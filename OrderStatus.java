@@ -0,0 +1,62 @@
+// OrderStatus.java
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The values of the orders.status ENUM in doxey.sql and which changes between them are allowed.
+//
+//   PENDING -> PROCESSING -> SHIPPED
+//      |            |
+//      +------------+-----> CANCELLED
+//
+// Orders only move forward: SHIPPED and CANCELLED are final. Setting an order to the status it
+// already has is not a change. The DAOs check this table themselves (MySQL in the UPDATE's
+// WHERE clause), so a stale screen can't push an order backwards.
+public final class OrderStatus {
+
+    public static final String PENDING = "PENDING";
+    public static final String PROCESSING = "PROCESSING";
+    public static final String SHIPPED = "SHIPPED";
+    public static final String CANCELLED = "CANCELLED";
+
+    public static final List<String> ALL = Collections.unmodifiableList(
+            Arrays.asList(PENDING, PROCESSING, SHIPPED, CANCELLED));
+
+    private static final Map<String, Set<String>> NEXT = new HashMap<>();
+    private static final Map<String, Set<String>> PREVIOUS = new HashMap<>();
+
+    static {
+        allow(PENDING, PROCESSING, CANCELLED);
+        allow(PROCESSING, SHIPPED, CANCELLED);
+        allow(SHIPPED);
+        allow(CANCELLED);
+    }
+
+    private OrderStatus() {
+    }
+
+    private static void allow(String from, String... to) {
+        NEXT.put(from, new LinkedHashSet<>(Arrays.asList(to)));
+        PREVIOUS.putIfAbsent(from, new LinkedHashSet<>());
+        for (String t : to) PREVIOUS.computeIfAbsent(t, k -> new LinkedHashSet<>()).add(from);
+    }
+
+    public static boolean isValid(String status) {
+        return NEXT.containsKey(status);
+    }
+
+    public static boolean canChange(String from, String to) {
+        Set<String> next = NEXT.get(from);
+        return next != null && next.contains(to);
+    }
+
+    // Statuses an order may be in to be moved to 'to' (empty for PENDING or an unknown status)
+    public static Set<String> allowedFrom(String to) {
+        Set<String> from = PREVIOUS.get(to);
+        return from == null ? Collections.emptySet() : Collections.unmodifiableSet(from);
+    }
+}
@@ -0,0 +1,30 @@
+// OrderSummary.java
+
+// One row of an order list: the orders columns the lists show plus the customer's name.
+// Kept to primitives and two strings so a page of a few hundred is cheap to hold and sort.
+public class OrderSummary {
+    private int orderId;
+    private int customerId;
+    private String customerName;   // only filled by the staff listing (findOrders)
+    private String status;
+    private long totalCents;
+    private long createdAt;        // epoch millis
+
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+
+    public int getCustomerId() { return customerId; }
+    public void setCustomerId(int customerId) { this.customerId = customerId; }
+
+    public String getCustomerName() { return customerName; }
+    public void setCustomerName(String customerName) { this.customerName = customerName; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public long getTotalCents() { return totalCents; }
+    public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+
+    public long getCreatedAt() { return createdAt; }
+    public void setCreatedAt(long createdAt) { this.createdAt = createdAt; }
+}
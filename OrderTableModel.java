@@ -0,0 +1,157 @@
+// OrderTableModel.java
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableRowSorter;
+import java.awt.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Table model over OrderSummary rows, for the customer's and the staff order lists.
+//
+// Cells hold the raw values (ids, cents, epoch millis), so clicking a header sorts the loaded
+// rows numerically in memory; the renderers installed by attach() turn them into "$12.50" and
+// "2024-05-01 14:03" only when a cell is painted.
+public class OrderTableModel extends AbstractTableModel {
+
+    private static final DateTimeFormatter PLACED = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
+            .withZone(ZoneId.systemDefault());
+
+    private final boolean showCustomer;
+    private final String[] columns;
+    private final List<OrderSummary> rows = new ArrayList<>();
+
+    public OrderTableModel(boolean showCustomer) {
+        this.showCustomer = showCustomer;
+        this.columns = showCustomer
+                ? new String[]{"Order", "Customer", "Status", "Total", "Placed"}
+                : new String[]{"Order", "Status", "Total", "Placed"};
+    }
+
+    // Sorter plus the Total/Placed/Status renderers; selectionMode is a ListSelectionModel mode
+    // (the staff list selects several orders for bulk status changes and deletes)
+    public void attach(JTable table, int selectionMode) {
+        table.setAutoCreateRowSorter(false);
+        table.setRowSorter(new TableRowSorter<>(this));
+        table.setSelectionMode(selectionMode);
+        int offset = showCustomer ? 1 : 0;
+        table.getColumnModel().getColumn(1 + offset).setCellRenderer(new StatusRenderer());
+        table.getColumnModel().getColumn(2 + offset).setCellRenderer(new MoneyRenderer());
+        table.getColumnModel().getColumn(3 + offset).setCellRenderer(new PlacedRenderer());
+    }
+
+    public void setRows(List<OrderSummary> list) {
+        rows.clear();
+        rows.addAll(list);
+        fireTableDataChanged();
+    }
+
+    public void addRows(List<OrderSummary> list) {
+        if (list.isEmpty()) return;
+        int first = rows.size();
+        rows.addAll(list);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    public void clear() {
+        rows.clear();
+        fireTableDataChanged();
+    }
+
+    public OrderSummary getOrderAt(int modelRow) {
+        return rows.get(modelRow);
+    }
+
+    // The selected order taking the table's sort into account, or null
+    public OrderSummary getSelectedOrder(JTable table) {
+        int viewRow = table.getSelectedRow();
+        if (viewRow < 0) return null;
+        return rows.get(table.convertRowIndexToModel(viewRow));
+    }
+
+    // All selected orders, in on-screen order
+    public List<OrderSummary> getSelectedOrders(JTable table) {
+        List<OrderSummary> selected = new ArrayList<>();
+        for (int viewRow : table.getSelectedRows()) {
+            selected.add(rows.get(table.convertRowIndexToModel(viewRow)));
+        }
+        return selected;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        if (showCustomer && col == 1) return String.class;
+        int c = showCustomer ? col - 1 : col;
+        switch (c) {
+            case 0: return Integer.class;
+            case 1: return String.class;
+            default: return Long.class;
+        }
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        OrderSummary o = rows.get(row);
+        if (showCustomer && col == 1) return o.getCustomerName();
+        int c = showCustomer ? col - 1 : col;
+        switch (c) {
+            case 0: return o.getOrderId();
+            case 1: return o.getStatus();
+            case 2: return o.getTotalCents();
+            default: return o.getCreatedAt();
+        }
+    }
+
+    private static class MoneyRenderer extends DefaultTableCellRenderer {
+        MoneyRenderer() {
+            setHorizontalAlignment(SwingConstants.RIGHT);
+        }
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : Money.format((Long) value));
+        }
+    }
+
+    private static class PlacedRenderer extends DefaultTableCellRenderer {
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : PLACED.format(Instant.ofEpochMilli((Long) value)));
+        }
+    }
+
+    private static class StatusRenderer extends DefaultTableCellRenderer {
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected) {
+                setForeground(OrderStatus.CANCELLED.equals(value) ? Color.GRAY : table.getForeground());
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+// OutboxDAO.java
+import java.util.Collection;
+import java.util.List;
+
+// Read side of the order_outbox table that OrderDAO writes to (see OrderEvent).
+// Implemented by MySqlOutboxDAO and EmbeddedOutboxDAO; used by OutboxRelay.
+public interface OutboxDAO {
+
+    // The oldest events still in the outbox, by outbox id; empty on error
+    List<OrderEvent> readOutbox(int limit);
+
+    // Removes events once they are safely in the EventLog
+    boolean deleteOutbox(Collection<Long> outboxIds);
+}
@@ -0,0 +1,120 @@
+// OutboxRelay.java
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Background thread that moves OrderEvents from the order_outbox table into the EventLog.
+//
+// Each pass reads the oldest outbox rows, appends the ones not yet in the log, forces the log to
+// disk and only then deletes the rows, so a crash at any point loses nothing. A crash between the
+// force and the delete would copy the same rows again on restart; the outbox ids of the last
+// events in the log are remembered to recognise them.
+//
+// Rows are not read "after the last id", because with concurrent MySQL transactions a lower
+// id can commit after a higher one. The newest copied row is left in the table so AUTO_INCREMENT
+// never starts again below ids the log has seen (MySQL 5.7 and the embedded engine both restart
+// the counter from the largest id still present).
+public class OutboxRelay implements Closeable {
+
+    private static final int BATCH = Integer.getInteger("store.outbox.batch", 500);
+    private static final int REMEMBERED = 4 * BATCH;
+
+    private final OutboxDAO outbox;
+    private final EventLog log;
+    private final long pollMillis;
+    private final LinkedHashSet<Long> copied = new LinkedHashSet<>();
+    private final AtomicLong relayed = new AtomicLong();
+    private Thread thread;
+    private volatile boolean closed;
+
+    public OutboxRelay(OutboxDAO outbox, EventLog log, long pollMillis) {
+        this.outbox = outbox;
+        this.log = log;
+        this.pollMillis = pollMillis;
+        copied.addAll(log.recentOutboxIds(REMEMBERED));
+        DaoMetrics.addReport(this::getStats);
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        thread = new Thread(this::run, "outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // One pass; returns how many events were appended to the log
+    public synchronized int relayOnce() throws IOException {
+        List<OrderEvent> rows = outbox.readOutbox(BATCH + 1);
+        if (rows.isEmpty()) return 0;
+
+        int appended = 0;
+        for (OrderEvent e : rows) {
+            if (copied.contains(e.getOutboxId())) continue;
+            log.append(e);
+            remember(e.getOutboxId());
+            appended++;
+        }
+        if (appended > 0) log.flush();
+
+        // everything read is now in the log; keep the newest row as the AUTO_INCREMENT floor
+        long newest = rows.get(rows.size() - 1).getOutboxId();
+        List<Long> done = new ArrayList<>();
+        for (OrderEvent e : rows) {
+            if (e.getOutboxId() != newest) done.add(e.getOutboxId());
+        }
+        outbox.deleteOutbox(done);
+        relayed.addAndGet(appended);
+        return appended;
+    }
+
+    private void remember(long outboxId) {
+        copied.add(outboxId);
+        if (copied.size() > REMEMBERED) {
+            copied.remove(copied.iterator().next());
+        }
+    }
+
+    private void run() {
+        while (!closed) {
+            int n;
+            try {
+                n = relayOnce();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+                n = 0;
+            }
+            if (n < BATCH) {
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Thread t;
+        synchronized (this) {
+            t = thread;
+        }
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        log.close();
+    }
+
+    public String getStats() {
+        return String.format("outbox relay: relayed=%d lastSequence=%d", relayed.get(), log.getLastSequence());
+    }
+}
@@ -0,0 +1,139 @@
+// PooledStatement.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Wraps every statement a pooled connection hands out, so per-statement policy lives in
+// one place instead of in each DAO:
+//  - applies the remaining operation deadline through setQueryTimeout before each execute
+//  - remembers when the last update ran, for DBConnection's read-your-writes routing
+//  - reports connection-level failures and successes to the pool's circuit breaker
+//  - counts SQL errors against the DAO method that is running (DaoMetrics)
+//  - times each execute and hands slow ones, with their bound parameters, to SlowQueryLog
+class PooledStatement implements InvocationHandler {
+
+    private final Statement target;
+    private final String sql;          // prepared SQL; null for a plain Statement
+    private final Connection lease;
+    private final ConnectionPool pool;
+    private final long deadlineNanos;
+    private boolean explicitTimeout;
+    private final List<Object> params = new ArrayList<>();
+    private int batchSize;
+
+    private PooledStatement(Statement target, String sql, Connection lease, ConnectionPool pool, long deadlineNanos) {
+        this.target = target;
+        this.sql = sql;
+        this.lease = lease;
+        this.pool = pool;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    static Statement wrap(Statement target, Class<?> type, String sql, Connection lease,
+                          ConnectionPool pool, long deadlineNanos) {
+        return (Statement) Proxy.newProxyInstance(
+                PooledStatement.class.getClassLoader(),
+                new Class<?>[]{type},
+                new PooledStatement(target, sql, lease, pool, deadlineNanos));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "getConnection":
+                return lease;
+            case "setQueryTimeout":
+                // caller knows better (e.g. a long export): stop applying the default deadline
+                explicitTimeout = true;
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "clearParameters":
+                params.clear();
+                break;
+            case "addBatch":
+                if (args == null) batchSize++;
+                break;
+            case "clearBatch":
+                batchSize = 0;
+                break;
+        }
+        if (SlowQueryLog.isEnabled() && name.startsWith("set") && args != null && args.length >= 2
+                && args[0] instanceof Integer && method.getDeclaringClass() != Statement.class) {
+            rememberParameter((Integer) args[0], name.equals("setNull") ? null : args[1]);
+        }
+
+        boolean execute = name.startsWith("execute");
+        if (execute && !explicitTimeout) {
+            target.setQueryTimeout(remainingTimeoutSeconds());
+        }
+
+        long start = System.nanoTime();
+        try {
+            Object result = method.invoke(target, args);
+            if (execute) {
+                pool.getBreaker().recordSuccess();
+                if (name.equals("executeUpdate") || name.equals("executeBatch")) pool.noteWrite();
+                long elapsed = System.nanoTime() - start;
+                if (SlowQueryLog.isSlow(elapsed)) {
+                    String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                    SlowQueryLog.record(text, text == sql ? params : null,
+                            name.equals("executeBatch") ? batchSize : 0, elapsed, pool);
+                }
+                if (name.equals("executeBatch")) batchSize = 0;
+            }
+            return result;
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (execute && cause instanceof SQLException) {
+                DaoMetrics.recordSqlError();
+                if (isConnectionFailure((SQLException) cause)) {
+                    pool.getBreaker().recordFailure();
+                } else if (cause instanceof SQLTimeoutException && SlowQueryLog.isEnabled()) {
+                    // a statement that ran out of time is a slow query, not a sick database
+                    String text = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+                    SlowQueryLog.record(text, text == sql ? params : null,
+                            name.equals("executeBatch") ? batchSize : 0, System.nanoTime() - start, pool);
+                }
+            }
+            throw cause;
+        }
+    }
+
+    private void rememberParameter(int index, Object value) {
+        while (params.size() < index) params.add(null);
+        params.set(index - 1, value);
+    }
+
+    // Seconds left for this statement: the smaller of the per-statement timeout and what is
+    // left of the operation (lease) deadline. Throws once the operation is already late.
+    private int remainingTimeoutSeconds() throws SQLTimeoutException {
+        int statementTimeout = pool.getSettings().queryTimeoutSeconds;
+        if (deadlineNanos == 0) return statementTimeout;
+
+        long remainingNanos = deadlineNanos - System.nanoTime();
+        if (remainingNanos <= 0) {
+            throw new SQLTimeoutException("Operation deadline of " +
+                    pool.getSettings().operationTimeoutMillis + " ms exceeded");
+        }
+        int remaining = (int) Math.max(1, (remainingNanos + 999_999_999L) / 1_000_000_000L);
+        return statementTimeout > 0 ? Math.min(statementTimeout, remaining) : remaining;
+    }
+
+    // Failures that say "the server is not answering" rather than "this SQL is wrong" or "this
+    // SQL is slow": a statement hitting its query timeout is not counted, or one heavy report
+    // could open the breaker for every caller of a healthy database
+    static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientConnectionException
+                || e instanceof SQLNonTransientConnectionException
+                || (state != null && state.startsWith("08"));
+    }
+}
@@ -0,0 +1,89 @@
+// PricingBenchmark.java
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cart-total micro benchmark: the old double/stream pricing against the long-cents path in
+// CustomerPanel.cartSubtotal + Money.afterDiscount. Needs no database.
+//
+//     java PricingBenchmark [cartLines] [iterations]
+//
+// Prints nanoseconds and bytes allocated per cart total for each. Numbers are indicative only;
+// there is no JMH in this project, so the loops are warmed up by hand and run long enough to be
+// compiled.
+public class PricingBenchmark {
+
+    // What a cart line boils down to for pricing
+    private static class Line {
+        final double price;
+        final long priceCents;
+        final int qty;
+
+        Line(long priceCents, int qty) {
+            this.priceCents = priceCents;
+            this.price = priceCents / 100.0;
+            this.qty = qty;
+        }
+    }
+
+    private static volatile double sinkDouble;
+    private static volatile long sinkLong;
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        List<Line> cart = new ArrayList<>();
+        for (int i = 0; i < lines; i++) cart.add(new Line(1999 + i * 137L, 1 + i % 3));
+
+        // both paths must agree before timing means anything
+        System.out.println("double total: " + String.format("%.2f", doubleTotal(cart, 12.5))
+                + "   cents total: " + Money.format(centsTotal(cart, 1250)));
+
+        for (int round = 0; round < 3; round++) {
+            measure("double + stream", iterations, () -> sinkDouble = doubleTotal(cart, 12.5));
+            measure("long cents loop", iterations, () -> sinkLong = centsTotal(cart, 1250));
+        }
+    }
+
+    // The previous checkout(): boxed stream sum and floating-point percentage
+    private static double doubleTotal(List<Line> cart, double percent) {
+        double total = cart.stream()
+                .mapToDouble(l -> l.price * l.qty)
+                .sum();
+        total -= total * (percent / 100.0);
+        if (total < 0) total = 0;
+        return total;
+    }
+
+    private static long centsTotal(List<Line> cart, long hundredthsOfPercent) {
+        long total = 0;
+        for (int i = 0; i < cart.size(); i++) {
+            Line l = cart.get(i);
+            total = Math.addExact(total, Money.times(l.priceCents, l.qty));
+        }
+        return Money.afterDiscount(total, "PERCENT", hundredthsOfPercent);
+    }
+
+    private static void measure(String name, int iterations, Runnable op) {
+        for (int i = 0; i < iterations / 10; i++) op.run();   // warm-up
+
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) op.run();
+        long elapsed = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+
+        System.out.printf("%-16s %8.1f ns/total %8.1f bytes/total%n",
+                name, (double) elapsed / iterations, bytes < 0 ? Double.NaN : (double) bytes / iterations);
+    }
+
+    // Bytes allocated by this thread so far, or -1 where the JVM can't tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
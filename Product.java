@@ -3,7 +3,7 @@ public class Product {
     private int productId;
     private String name;
     private String description;
-    private double price;
+    private long priceCents;
     private int stockQuantity;
     private boolean active;
     private String imagePath;
@@ -20,8 +20,8 @@ public class Product {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
 
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
+    public long getPriceCents() { return priceCents; }
+    public void setPriceCents(long priceCents) { this.priceCents = priceCents; }
 
     public int getStockQuantity() { return stockQuantity; }
     public void setStockQuantity(int stockQuantity) { this.stockQuantity = stockQuantity; }
@@ -1,122 +1,51 @@
-import java.sql.*;
-import java.util.ArrayList;
+// ProductDAO.java
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
-public class ProductDAO {
+// Product catalog storage. Implemented by MySqlProductDAO and EmbeddedProductDAO;
+// pick one through DAOFactory.
+public interface ProductDAO {
 
-    public boolean createProduct(Product p) {
-        String sql = "INSERT INTO products (name, description, price, stock_quantity, active, image_path) " +
-                "VALUES (?, ?, ?, ?, 1, ?)";
+    boolean createProduct(Product p);
 
-        String imgPath = p.getImagePath();
-        if (imgPath == null || imgPath.isEmpty()) {
-            imgPath = "images/products/placeholder.png";
-        }
+    // Inserts all the products in one transaction (all or none) and sets their ids.
+    // Used by ProductImporter, which hands it one chunk at a time.
+    boolean createProducts(List<Product> products);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+    // Active product by id, or null
+    Product findById(int id);
 
-            stmt.setString(1, p.getName());
-            stmt.setString(2, p.getDescription());
-            stmt.setDouble(3, p.getPrice());
-            stmt.setInt(4, p.getStockQuantity());
-            stmt.setString(5, imgPath);
+    // Products by id in one round trip, keyed by id; ids that don't exist are simply missing.
+    // Unlike findById this includes deactivated products, so old orders can still show them.
+    Map<Integer, Product> findByIds(Collection<Integer> ids);
 
-            stmt.executeUpdate();
+    // All active products, newest first
+    List<Product> listActiveProducts();
 
-            ResultSet rs = stmt.getGeneratedKeys();
-            if (rs.next()) {
-                p.setProductId(rs.getInt(1));
-            }
-            return true;
+    // One page of active products for list views, newest first: those with product_id < afterId
+    // (afterId <= 0 starts from the newest). Pass the last id of a page to get the next one.
+    // Summaries leave out the description; see findDescription.
+    List<ProductSummary> listActiveProducts(int afterId, int limit);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
+    // Description of one product (for its detail view), or null
+    String findDescription(int productId);
 
-    public Product findById(int id) {
-        String sql = "SELECT * FROM products WHERE product_id = ? AND active = 1";
+    // Sets an absolute stock level (employee stock edits). Buyers use tryDecrementStock (or
+    // OrderDAO.placeOrder, which runs the same conditional UPDATE inside the checkout).
+    boolean updateStock(int productId, int newStock);
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    // Takes qty off the stock in one conditional UPDATE; false if there isn't enough left.
+    // Concurrent buyers can't overwrite each other and stock can't go negative.
+    boolean tryDecrementStock(int productId, int qty);
 
-            stmt.setInt(1, id);
+    // Whole-cart form (productId -> qty): either every line is taken off, or none is
+    boolean tryDecrementStock(Map<Integer, Integer> quantities);
 
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                Product p = new Product();
-                p.setProductId(rs.getInt("product_id"));
-                p.setName(rs.getString("name"));
-                p.setDescription(rs.getString("description"));
-                p.setPrice(rs.getDouble("price"));
-                p.setStockQuantity(rs.getInt("stock_quantity"));
-                p.setActive(rs.getBoolean("active"));
-                p.setImagePath(rs.getString("image_path"));
-                return p;
-            }
+    // Stock was already taken off in another DAO's transaction (OrderDAO.placeOrder); lets the
+    // caches in front of the store catch up. The stores themselves have nothing to do.
+    void stockDecremented(Map<Integer, Integer> quantities);
 
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    public List<Product> listActiveProducts() {
-        List<Product> list = new ArrayList<>();
-        String sql = "SELECT * FROM products WHERE active = 1 ORDER BY product_id DESC";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                Product p = new Product();
-                p.setProductId(rs.getInt("product_id"));
-                p.setName(rs.getString("name"));
-                p.setDescription(rs.getString("description"));
-                p.setPrice(rs.getDouble("price"));
-                p.setStockQuantity(rs.getInt("stock_quantity"));
-                p.setActive(rs.getBoolean("active"));
-                p.setImagePath(rs.getString("image_path"));
-                list.add(p);
-            }
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return list;
-    }
-
-    public boolean updateStock(int productId, int newStock) {
-        String sql = "UPDATE products SET stock_quantity = ? WHERE product_id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, newStock);
-            stmt.setInt(2, productId);
-            return stmt.executeUpdate() > 0;
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
-
-    public boolean deleteProduct(int productId) {
-        String sql = "UPDATE products SET active = 0 WHERE product_id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setInt(1, productId);
-            return stmt.executeUpdate() > 0;
-
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
+    // Soft delete (active = 0)
+    boolean deleteProduct(int productId);
 }
@@ -0,0 +1,386 @@
+// ProductImporter.java
+import javax.imageio.ImageIO;
+import javax.imageio.stream.ImageInputStream;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+
+// Bulk catalog import from a CSV or JSON manifest.
+//
+// The manifest is streamed record by record, never loaded whole. Columns/keys: name, description,
+// price, stock (or stock_quantity), image (or image_path; relative paths are resolved against
+// the manifest's folder). CSV needs a header row; JSON may be an array of objects or one object
+// per line.
+//
+// Records are grouped into chunks of -Dstore.import.chunkSize (default 500). While one chunk is
+// being inserted (ProductDAO.createProducts: multi-row INSERTs in one transaction), the images
+// of the next are already being validated and copied into images/products/ on a pool of
+// -Dstore.import.imageThreads workers. A chunk that fails as a whole is retried row by row so
+// the report can name the bad rows. Bad rows are skipped, never fatal.
+public class ProductImporter {
+
+    private static final int CHUNK_SIZE = Integer.getInteger("store.import.chunkSize", 500);
+    private static final int IMAGE_THREADS = Integer.getInteger("store.import.imageThreads",
+            Math.max(2, Runtime.getRuntime().availableProcessors()));
+    private static final int MAX_ERRORS = 1000;
+    private static final File IMAGE_DIR = new File("images/products/");
+
+    private final ProductDAO dao;
+
+    // Called after every chunk (on the importing thread)
+    public interface Progress {
+        void update(Report report);
+    }
+
+    // Running totals; the final one is returned by importFile
+    public static class Report {
+        int records;
+        int imported;
+        int skipped;
+        int imagesCopied;
+        int imageWarnings;
+        long elapsedMillis;
+        final List<String> errors = new ArrayList<>();
+
+        public int getRecords() { return records; }
+        public int getImported() { return imported; }
+        public int getSkipped() { return skipped; }
+        public int getImagesCopied() { return imagesCopied; }
+        public int getImageWarnings() { return imageWarnings; }
+        public long getElapsedMillis() { return elapsedMillis; }
+        public List<String> getErrors() { return errors; }
+
+        synchronized void error(String message) {
+            if (errors.size() < MAX_ERRORS) errors.add(message);
+            else if (errors.size() == MAX_ERRORS) errors.add("... more problems not listed");
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d records: %d imported, %d skipped, %d images copied, %d image warnings (%.1f s)",
+                    records, imported, skipped, imagesCopied, imageWarnings, elapsedMillis / 1000.0);
+        }
+    }
+
+    // One record on its way in: the product and its image job
+    private static class Pending {
+        final int record;
+        final Product product;
+        final Future<String> image;
+
+        Pending(int record, Product product, Future<String> image) {
+            this.record = record;
+            this.product = product;
+            this.image = image;
+        }
+    }
+
+    public ProductImporter(ProductDAO dao) {
+        this.dao = dao;
+    }
+
+    public Report importFile(File manifest, Progress progress) throws IOException {
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        File baseDir = manifest.getAbsoluteFile().getParentFile();
+        IMAGE_DIR.mkdirs();
+
+        ExecutorService images = Executors.newFixedThreadPool(IMAGE_THREADS, r -> {
+            Thread t = new Thread(r, "import-images");
+            t.setDaemon(true);
+            return t;
+        });
+        try (Reader in = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), StandardCharsets.UTF_8))) {
+            RecordReader records = manifest.getName().toLowerCase(Locale.ROOT).endsWith(".csv")
+                    ? new CsvRecords(in) : new JsonRecords(in);
+
+            List<Pending> inFlight = null;        // images being prepared, insert still to come
+            List<Pending> current = new ArrayList<>();
+            Map<String, String> rec;
+            while ((rec = records.next()) != null) {
+                int n = ++report.records;
+                Product p = toProduct(n, rec, report);
+                if (p == null) {
+                    report.skipped++;
+                    continue;
+                }
+                String image = field(rec, "image", "image_path");
+                current.add(new Pending(n, p, images.submit(() -> prepareImage(n, image, baseDir, report))));
+
+                if (current.size() >= CHUNK_SIZE) {
+                    if (inFlight != null) insert(inFlight, report, progress, start);
+                    inFlight = current;
+                    current = new ArrayList<>();
+                }
+            }
+            if (inFlight != null) insert(inFlight, report, progress, start);
+            if (!current.isEmpty()) insert(current, report, progress, start);
+        } finally {
+            images.shutdownNow();
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private Product toProduct(int n, Map<String, String> rec, Report report) {
+        String name = field(rec, "name");
+        if (name == null || name.trim().isEmpty()) {
+            report.error("Record " + n + ": missing name");
+            return null;
+        }
+        Product p = new Product();
+        p.setName(name.trim());
+        p.setDescription(field(rec, "description"));
+        try {
+            p.setPriceCents(Money.parse(field(rec, "price")));
+            String stock = field(rec, "stock", "stock_quantity");
+            p.setStockQuantity(stock == null || stock.trim().isEmpty() ? 0 : Integer.parseInt(stock.trim()));
+        } catch (NullPointerException | NumberFormatException e) {
+            report.error("Record " + n + " (" + name + "): bad or missing price/stock");
+            return null;
+        }
+        if (p.getPriceCents() < 0 || p.getStockQuantity() < 0) {
+            report.error("Record " + n + " (" + name + "): price and stock must not be negative");
+            return null;
+        }
+        return p;
+    }
+
+    private static String field(Map<String, String> rec, String... names) {
+        for (String name : names) {
+            String v = rec.get(name);
+            if (v != null) return v;
+        }
+        return null;
+    }
+
+    // Runs on an image worker: checks the file really is an image and copies it next to the
+    // others, the same way EmployeePanel.createProduct does. Problems fall back to the placeholder.
+    private static String prepareImage(int n, String image, File baseDir, Report report) {
+        if (image == null || image.trim().isEmpty()) return null;
+        File src = new File(image.trim());
+        if (!src.isAbsolute()) src = new File(baseDir, image.trim());
+
+        String problem = null;
+        if (!src.isFile()) {
+            problem = "not found";
+        } else {
+            try (ImageInputStream iis = ImageIO.createImageInputStream(src)) {
+                if (iis == null || !ImageIO.getImageReaders(iis).hasNext()) problem = "not a readable image";
+            } catch (IOException e) {
+                problem = e.getMessage();
+            }
+        }
+        if (problem == null) {
+            try {
+                File dest = new File(IMAGE_DIR, src.getName());
+                Files.copy(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                synchronized (report) {
+                    report.imagesCopied++;
+                }
+                return dest.getPath();
+            } catch (IOException e) {
+                problem = "copy failed: " + e.getMessage();
+            }
+        }
+        synchronized (report) {
+            report.imageWarnings++;
+            report.error("Record " + n + ": image " + image + " " + problem + "; using placeholder");
+        }
+        return null;
+    }
+
+    private void insert(List<Pending> chunk, Report report, Progress progress, long start) {
+        List<Product> products = new ArrayList<>(chunk.size());
+        for (Pending p : chunk) {
+            try {
+                p.product.setImagePath(p.image.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Import interrupted");
+            } catch (ExecutionException e) {
+                p.product.setImagePath(null);
+            }
+            products.add(p.product);
+        }
+
+        if (dao.createProducts(products)) {
+            report.imported += products.size();
+        } else {
+            // find the culprits one by one; the rest still go in
+            for (Pending p : chunk) {
+                if (dao.createProduct(p.product)) {
+                    report.imported++;
+                } else {
+                    report.skipped++;
+                    synchronized (report) {
+                        report.error("Record " + p.record + " (" + p.product.getName() + "): insert failed");
+                    }
+                }
+            }
+        }
+        synchronized (report) {
+            report.elapsedMillis = System.currentTimeMillis() - start;
+        }
+        if (progress != null) progress.update(report);
+    }
+
+    // ---- manifest readers: one record (column -> value) per call, null at the end ----
+
+    private interface RecordReader {
+        Map<String, String> next() throws IOException;
+    }
+
+    // RFC 4180 style: quoted fields may contain commas, doubled quotes and line breaks
+    private static class CsvRecords implements RecordReader {
+        private final Reader in;
+        private final List<String> header;
+
+        CsvRecords(Reader in) throws IOException {
+            this.in = in;
+            List<String> h = readRow();
+            if (h == null) throw new IOException("Empty CSV manifest");
+            header = new ArrayList<>();
+            for (String col : h) header.add(col.trim().toLowerCase(Locale.ROOT));
+        }
+
+        public Map<String, String> next() throws IOException {
+            List<String> row;
+            do {
+                row = readRow();
+                if (row == null) return null;
+            } while (row.size() == 1 && row.get(0).trim().isEmpty());   // blank line
+
+            Map<String, String> rec = new HashMap<>();
+            for (int i = 0; i < header.size() && i < row.size(); i++) rec.put(header.get(i), row.get(i));
+            return rec;
+        }
+
+        private List<String> readRow() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int c = in.read();
+            if (c == -1) return null;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) throw new IOException("Unterminated quoted field in CSV manifest");
+                    if (c == '"') {
+                        in.mark(1);
+                        int next = in.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            in.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    // Pulls flat objects out of "[{...}, {...}]" or newline-delimited "{...}" input without
+    // building the whole document. Values may be strings, numbers, booleans or null.
+    private static class JsonRecords implements RecordReader {
+        private final PushbackReader in;
+
+        JsonRecords(Reader in) {
+            this.in = new PushbackReader(in, 1);
+        }
+
+        public Map<String, String> next() throws IOException {
+            int c;
+            // skip whatever sits between objects: whitespace, '[', ',', ']'
+            do {
+                c = in.read();
+            } while (c != -1 && c != '{');
+            if (c == -1) return null;
+
+            Map<String, String> rec = new HashMap<>();
+            c = skipSpace();
+            if (c == '}') return rec;
+            while (true) {
+                if (c != '"') throw new IOException("Expected a key in JSON manifest, got '" + (char) c + "'");
+                String key = readString().toLowerCase(Locale.ROOT);
+                if (skipSpace() != ':') throw new IOException("Expected ':' after key " + key);
+                rec.put(key, readValue());
+                c = skipSpace();
+                if (c == '}') return rec;
+                if (c != ',') throw new IOException("Expected ',' or '}' in JSON manifest");
+                c = skipSpace();
+            }
+        }
+
+        private int skipSpace() throws IOException {
+            int c;
+            do {
+                c = in.read();
+            } while (c != -1 && Character.isWhitespace(c));
+            return c;
+        }
+
+        private String readValue() throws IOException {
+            int c = skipSpace();
+            if (c == '"') return readString();
+            if (c == '{' || c == '[') throw new IOException("Nested values are not supported in the JSON manifest");
+            StringBuilder sb = new StringBuilder();
+            while (c != -1 && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+                sb.append((char) c);
+                c = in.read();
+            }
+            if (c != -1) in.unread(c);
+            String v = sb.toString();
+            return v.equals("null") ? null : v;
+        }
+
+        private String readString() throws IOException {
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                int c = in.read();
+                if (c == -1) throw new IOException("Unterminated string in JSON manifest");
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append((char) c);
+                    continue;
+                }
+                int e = in.read();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u': {
+                        char[] hex = new char[4];
+                        for (int i = 0; i < 4; i++) hex[i] = (char) in.read();
+                        sb.append((char) Integer.parseInt(new String(hex), 16));
+                        break;
+                    }
+                    default: sb.append((char) e);   // \" \\ \/
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+// ProductSales.java
+
+// Units and revenue (line totals before coupons) of one product across all orders not cancelled
+public class ProductSales {
+    private int productId;
+    private String productName;
+    private long units;
+    private long revenueCents;
+
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public long getUnits() { return units; }
+    public void setUnits(long units) { this.units = units; }
+
+    public long getRevenueCents() { return revenueCents; }
+    public void setRevenueCents(long revenueCents) { this.revenueCents = revenueCents; }
+}
@@ -0,0 +1,25 @@
+// ProductSummary.java
+// The columns the list views show: everything in Product except the (unbounded) description.
+// Load the description on demand with ProductDAO.findDescription.
+public class ProductSummary {
+    private int productId;
+    private String name;
+    private long priceCents;
+    private int stockQuantity;
+    private String imagePath;
+
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public long getPriceCents() { return priceCents; }
+    public void setPriceCents(long priceCents) { this.priceCents = priceCents; }
+
+    public int getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(int stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public String getImagePath() { return imagePath; }
+    public void setImagePath(String imagePath) { this.imagePath = imagePath; }
+}
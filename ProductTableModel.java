@@ -0,0 +1,137 @@
+// ProductTableModel.java
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Lazy table model for the product tables (CustomerPanel.productsTable, EmployeePanel.prodTable).
+//
+// Rows are ProductSummary projections (no description), fetched a page at a time with
+// ProductDAO.listActiveProducts(afterId, limit) and only when the user scrolls near the end of
+// what is loaded, so opening the tab costs one page no matter how big the catalog is.
+// Thumbnails are scaled on first paint and kept in a small LRU, instead of scaling an image for
+// every product up front.
+public class ProductTableModel extends AbstractTableModel {
+
+    private static final String[] COLUMNS = {"ID", "Name", "Price", "Stock", "Image"};
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_ICONS = 200;
+
+    private final ProductDAO dao;
+    private final StockReservations reservations;   // null: show raw stock
+    private final List<ProductSummary> rows = new ArrayList<>();
+    private boolean exhausted;
+
+    private final Map<Integer, ImageIcon> icons = new LinkedHashMap<Integer, ImageIcon>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, ImageIcon> eldest) {
+            return size() > MAX_ICONS;
+        }
+    };
+
+    public ProductTableModel(ProductDAO dao) {
+        this(dao, null);
+    }
+
+    // With reservations, the Stock column shows available-to-sell (stock minus cart holds)
+    public ProductTableModel(ProductDAO dao, StockReservations reservations) {
+        this.dao = dao;
+        this.reservations = reservations;
+    }
+
+    // Fetch pages as the table's viewport gets close to the last loaded row
+    public void attach(JTable table, JScrollPane scroll) {
+        table.setRowHeight(55);
+        scroll.getViewport().addChangeListener(e -> {
+            Rectangle view = scroll.getViewport().getViewRect();
+            int lastVisible = table.rowAtPoint(new Point(0, view.y + view.height - 1));
+            if (lastVisible < 0) lastVisible = rows.size() - 1;
+            if (lastVisible >= rows.size() - PAGE_SIZE / 2) loadNextPage();
+        });
+    }
+
+    // Start over from the newest product (after a create, checkout, ...)
+    public void reload() {
+        rows.clear();
+        icons.clear();
+        exhausted = false;
+        fireTableDataChanged();
+        loadNextPage();
+    }
+
+    // Show a fixed list instead of paging (search results)
+    public void showRows(List<ProductSummary> list) {
+        rows.clear();
+        rows.addAll(list);
+        exhausted = true;
+        fireTableDataChanged();
+    }
+
+    public void loadNextPage() {
+        if (exhausted) return;
+        int afterId = rows.isEmpty() ? 0 : rows.get(rows.size() - 1).getProductId();
+        List<ProductSummary> page = dao.listActiveProducts(afterId, PAGE_SIZE);
+        if (page.size() < PAGE_SIZE) exhausted = true;
+        if (page.isEmpty()) return;
+        int first = rows.size();
+        rows.addAll(page);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    public ProductSummary getProductAt(int row) {
+        return rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        if (columnIndex == 4) return ImageIcon.class;
+        return Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int row, int col) {
+        ProductSummary p = rows.get(row);
+        switch (col) {
+            case 0: return p.getProductId();
+            case 1: return p.getName();
+            case 2: return Money.format(p.getPriceCents());
+            case 3: return reservations == null ? p.getStockQuantity()
+                    : p.getStockQuantity() - reservations.reservedFor(p.getProductId());
+            default: return icons.computeIfAbsent(p.getProductId(), id -> thumbnail(p.getImagePath()));
+        }
+    }
+
+    private static ImageIcon thumbnail(String path) {
+        ImageIcon icon;
+        if (path == null || path.isEmpty()) {
+            icon = new ImageIcon("placeholder.png");
+        } else {
+            icon = new ImageIcon(path);
+        }
+        Image scaled = icon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
+        return new ImageIcon(scaled);
+    }
+}
@@ -0,0 +1,97 @@
+// SalesBackfill.java
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Fork-join recomputation of the sales aggregates from the order history, for
+// EmbeddedSalesReportDAO.rebuild(). (MySQL groups the history on the server instead, inside
+// the rebuild's own transaction.)
+//
+// The order id range is split in halves until a piece has at most 'chunk' ids; each piece is
+// summed by the Leaf (a walk over the rows) and the partial totals are merged on the way back
+// up. Pieces share nothing, so they run in parallel without locking of their own; the caller
+// holds the database lock that keeps writers out for the whole run.
+public class SalesBackfill extends RecursiveTask<SalesBackfill.Totals> {
+
+    // Sums the orders with fromId <= order_id < toId that are not cancelled
+    public interface Leaf {
+        Totals sum(int fromId, int toId) throws Exception;
+    }
+
+    // Partial or final totals: per day {orders, units, revenue} and per product {units, revenue}
+    public static class Totals {
+        final Map<Long, long[]> daily = new HashMap<>();
+        final Map<Integer, long[]> products = new HashMap<>();
+
+        public void addOrder(long epochDay, long revenueCents) {
+            long[] d = daily.computeIfAbsent(epochDay, k -> new long[3]);
+            d[0]++;
+            d[2] += revenueCents;
+        }
+
+        public void addLine(long epochDay, int productId, long units, long revenueCents) {
+            daily.computeIfAbsent(epochDay, k -> new long[3])[1] += units;
+            long[] p = products.computeIfAbsent(productId, k -> new long[2]);
+            p[0] += units;
+            p[1] += revenueCents;
+        }
+
+        Totals merge(Totals other) {
+            other.daily.forEach((day, v) -> {
+                long[] d = daily.computeIfAbsent(day, k -> new long[3]);
+                for (int i = 0; i < 3; i++) d[i] += v[i];
+            });
+            other.products.forEach((id, v) -> {
+                long[] p = products.computeIfAbsent(id, k -> new long[2]);
+                p[0] += v[0];
+                p[1] += v[1];
+            });
+            return this;
+        }
+
+        public Map<Long, long[]> getDaily() { return daily; }
+        public Map<Integer, long[]> getProducts() { return products; }
+    }
+
+    private final Leaf leaf;
+    private final int fromId;
+    private final int toId;
+    private final int chunk;
+
+    private SalesBackfill(Leaf leaf, int fromId, int toId, int chunk) {
+        this.leaf = leaf;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.chunk = chunk;
+    }
+
+    // Totals for order ids in [fromId, toId) on 'parallelism' worker threads
+    public static Totals run(Leaf leaf, int fromId, int toId, int chunk, int parallelism) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new SalesBackfill(leaf, fromId, toId, Math.max(1, chunk)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    protected Totals compute() {
+        if (toId - fromId <= chunk) {
+            try {
+                return leaf.sum(fromId, toId);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Backfill of orders " + fromId + ".." + (toId - 1) + " failed", e);
+            }
+        }
+        int mid = fromId + (toId - fromId) / 2;
+        SalesBackfill left = new SalesBackfill(leaf, fromId, mid, chunk);
+        SalesBackfill right = new SalesBackfill(leaf, mid, toId, chunk);
+        left.fork();
+        Totals r = right.compute();
+        return left.join().merge(r);
+    }
+}
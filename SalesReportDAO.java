@@ -0,0 +1,19 @@
+// SalesReportDAO.java
+import java.time.LocalDate;
+import java.util.List;
+
+// Admin Analytics: answers from the sales_daily / sales_by_product aggregates, which the
+// OrderDAO implementations keep current as orders are placed, cancelled and deleted.
+// Implemented by MySqlSalesReportDAO and EmbeddedSalesReportDAO.
+public interface SalesReportDAO {
+
+    // Days with sales between the two dates (both inclusive), oldest first
+    List<DailySales> dailySales(LocalDate from, LocalDate to);
+
+    // Best sellers by gross line revenue (line totals before coupons)
+    List<ProductSales> topProducts(int limit);
+
+    // Recomputes both aggregates from the whole order history and swaps them in atomically:
+    // order changes made meanwhile wait for it and then apply on top of the new totals.
+    boolean rebuild();
+}
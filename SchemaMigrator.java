@@ -0,0 +1,229 @@
+// SchemaMigrator.java
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Brings a MySQL database created from doxey.sql up to date when the application starts.
+//
+// Changes to the schema go in numbered scripts, migrations/V<n>__<what_it_does>.sql, which are
+// applied once each in version order. Every applied script is recorded in schema_version with
+// a SHA-256 of its text; if an applied script is later edited the checksum no longer matches
+// and startup stops, because the database would silently differ from what the file says.
+// Add a new version instead of changing an old one.
+//
+// A GET_LOCK around the run keeps two instances starting together from applying a script twice.
+// DDL is not transactional in MySQL, so a script is recorded only after all of its statements
+// succeed; a re-run after a half-applied script tolerates indexes that already exist.
+public class SchemaMigrator {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final String LOCK_NAME = "online_store.schema_migration";
+    private static final int LOCK_WAIT_SECONDS = 60;
+    private static final int ER_DUP_KEYNAME = 1061;
+
+    // One script on disk
+    public static class Migration {
+        final int version;
+        final String description;
+        final String checksum;
+        final List<String> statements;
+
+        Migration(int version, String description, String checksum, List<String> statements) {
+            this.version = version;
+            this.description = description;
+            this.checksum = checksum;
+            this.statements = statements;
+        }
+
+        public int getVersion() { return version; }
+        public String getDescription() { return description; }
+        public String getChecksum() { return checksum; }
+    }
+
+    private final Path dir;
+
+    public SchemaMigrator(Path dir) {
+        this.dir = dir;
+    }
+
+    // Applies whatever is pending and returns how many scripts ran.
+    // IllegalStateException when an applied script was changed or has a conflicting version.
+    public int migrate(Connection conn) throws SQLException, IOException {
+        List<Migration> scripts = load();
+        if (scripts.isEmpty()) return 0;
+
+        if (!lock(conn)) {
+            throw new SQLException("Timed out waiting for another instance to finish migrating");
+        }
+        try {
+            createVersionTable(conn);
+            Map<Integer, String> applied = appliedChecksums(conn);
+
+            for (Migration m : scripts) {
+                String recorded = applied.get(m.version);
+                if (recorded != null && !recorded.equals(m.checksum)) {
+                    throw new IllegalStateException("Migration V" + m.version + " (" + m.description +
+                            ") was changed after it was applied; add a new version instead");
+                }
+            }
+
+            int count = 0;
+            for (Migration m : scripts) {
+                if (applied.containsKey(m.version)) continue;
+                long start = System.currentTimeMillis();
+                apply(conn, m);
+                long millis = System.currentTimeMillis() - start;
+                record(conn, m, millis);
+                System.err.println("[schema] applied V" + m.version + " " + m.description + " in " + millis + " ms");
+                count++;
+            }
+            return count;
+        } finally {
+            unlock(conn);
+        }
+    }
+
+    // Scripts in the directory sorted by version; a missing directory means nothing to do
+    public List<Migration> load() throws IOException {
+        List<Migration> result = new ArrayList<>();
+        if (!Files.isDirectory(dir)) return result;
+
+        TreeMap<Integer, Path> byVersion = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "V*.sql")) {
+            for (Path file : files) {
+                Matcher m = FILE_NAME.matcher(file.getFileName().toString());
+                if (!m.matches()) {
+                    throw new IllegalStateException("Migration file name must be V<n>__<description>.sql: " + file);
+                }
+                Path clash = byVersion.put(Integer.parseInt(m.group(1)), file);
+                if (clash != null) {
+                    throw new IllegalStateException("Two migrations with version " + m.group(1) + ": " +
+                            clash.getFileName() + ", " + file.getFileName());
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Path> e : byVersion.entrySet()) {
+            // line endings are normalised so a checkout with CRLF doesn't look like an edit
+            String text = new String(Files.readAllBytes(e.getValue()), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            Matcher m = FILE_NAME.matcher(e.getValue().getFileName().toString());
+            m.matches();
+            result.add(new Migration(e.getKey(), m.group(2).replace('_', ' '), sha256(text), splitStatements(text)));
+        }
+        return result;
+    }
+
+    // Statements end with ';' at the end of a line; '--' lines are comments
+    static List<String> splitStatements(String text) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : text.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) continue;
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String sql = current.toString().trim();
+                statements.add(sql.substring(0, sql.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) statements.add(current.toString().trim());
+        return statements;
+    }
+
+    private void apply(Connection conn, Migration m) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            for (String sql : m.statements) {
+                try {
+                    st.execute(sql);
+                } catch (SQLException e) {
+                    // index already there (created by hand, by doxey.sql, or by an interrupted run)
+                    if (e.getErrorCode() == ER_DUP_KEYNAME) continue;
+                    throw new SQLException("V" + m.version + " failed at: " + sql, e.getSQLState(),
+                            e.getErrorCode(), e);
+                }
+            }
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        try (Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum CHAR(64) NOT NULL, " +
+                    "execution_ms INT NOT NULL, " +
+                    "installed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private Map<Integer, String> appliedChecksums(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) applied.put(rs.getInt("version"), rs.getString("checksum"));
+        }
+        return applied;
+    }
+
+    private void record(Connection conn, Migration m, long millis) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setInt(1, m.version);
+            ps.setString(2, m.description);
+            ps.setString(3, m.checksum);
+            ps.setInt(4, (int) Math.min(millis, Integer.MAX_VALUE));
+            ps.executeUpdate();
+        }
+    }
+
+    private boolean lock(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_WAIT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void unlock(Connection conn) {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(64);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Default location, relative to the working directory like images/products
+    public static Path defaultDir() {
+        return Paths.get(System.getProperty("db.migrations.dir", "migrations"));
+    }
+}
@@ -0,0 +1,399 @@
+// SearchableProductDAO.java
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Product search without LIKE scans: an in-memory inverted index over name and description,
+// kept in front of another ProductDAO.
+//
+// Text is lower-cased, stripped of accents and split into tokens; each token points at the
+// products containing it (a name hit weighs more than a description hit). A query token
+// matches index terms exactly, as a prefix ("barc" -> "barcelona") or, failing both, within a
+// small edit distance ("arsnal" -> "arsenal"); products must match every query token and are
+// ranked by the weighted sum. All of it is plain map lookups, so a query takes microseconds.
+//
+// The index is built from one listActiveProducts() call on first use, patched by every write
+// made through this DAO (create, delete, stock changes) and rebuilt after
+// -Dstore.search.rebuildMs (default 300000) to pick up changes made elsewhere. A rebuild loads
+// and indexes the catalog outside the lock, while searches keep using the old index, and then
+// swaps the new one in; creates and deletes made meanwhile are replayed onto it. A load that
+// comes back empty (an empty catalog, but also the DAOs' answer on error) doesn't replace an
+// index that has products; it counts as a build for -Dstore.search.emptyRetryMs (default
+// 10000), so searches neither reload the catalog on every keystroke nor wait long for a retry.
+public class SearchableProductDAO implements ProductDAO {
+
+    private static final long REBUILD_MILLIS = Long.getLong("store.search.rebuildMs", 300_000L);
+    private static final long EMPTY_RETRY_MILLIS = Math.min(REBUILD_MILLIS,
+            Long.getLong("store.search.emptyRetryMs", 10_000L));
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+
+    private final ProductDAO delegate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // one rebuild at a time; searches don't wait for it once there is an index to answer from
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    // guarded by lock
+    private Index index = new Index();
+    private long builtAt = -1;      // -1 until the first build; writes are indexed from then on
+    private long freshUntil;
+    private List<Change> pending;   // changes made while a rebuild is loading, replayed onto its result
+
+    // The searchable state; built whole by a rebuild, then patched under the write lock
+    private static class Index {
+        // term -> (productId -> weight); sorted so prefixes are a subMap
+        final TreeMap<String, Map<Integer, Float>> postings = new TreeMap<>();
+        // term length -> word terms, so fuzzy matching only looks at terms of a similar length
+        final Map<Integer, Set<String>> termsByLength = new HashMap<>();
+        final Map<Integer, Doc> docs = new HashMap<>();
+
+        void addDoc(Product p) {
+            Map<String, Float> terms = new HashMap<>();
+            for (String t : tokenize(p.getName())) terms.merge(t, NAME_WEIGHT, Float::sum);
+            for (String t : tokenize(p.getDescription())) terms.merge(t, DESCRIPTION_WEIGHT, Float::sum);
+
+            removeDoc(p.getProductId());
+            docs.put(p.getProductId(), new Doc(summaryOf(p), terms));
+            for (Map.Entry<String, Float> e : terms.entrySet()) {
+                String term = e.getKey();
+                Map<Integer, Float> posting = postings.get(term);
+                if (posting == null) {
+                    posting = new HashMap<>();
+                    postings.put(term, posting);
+                    if (isWord(term)) termsByLength.computeIfAbsent(term.length(), k -> new HashSet<>()).add(term);
+                }
+                posting.put(p.getProductId(), e.getValue());
+            }
+        }
+
+        void removeDoc(int productId) {
+            Doc doc = docs.remove(productId);
+            if (doc == null) return;
+            for (String term : doc.terms.keySet()) {
+                Map<Integer, Float> posting = postings.get(term);
+                if (posting == null) continue;
+                posting.remove(productId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                    Set<String> sameLength = termsByLength.get(term.length());
+                    if (sameLength != null) sameLength.remove(term);
+                }
+            }
+        }
+    }
+
+    private interface Change {
+        void apply(Index index);
+    }
+
+    // One indexed product: what the results show, plus its terms for removal
+    private static class Doc {
+        final ProductSummary summary;
+        final Map<String, Float> terms;
+
+        Doc(ProductSummary summary, Map<String, Float> terms) {
+            this.summary = summary;
+            this.terms = terms;
+        }
+    }
+
+    public SearchableProductDAO(ProductDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    // Ranked matches for a free-text query, best first; empty for a blank query
+    public List<ProductSummary> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) return new ArrayList<>();
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            Map<Integer, Float> scores = null;
+            for (String token : tokens) {
+                Map<Integer, Float> tokenScores = match(token);
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    // every query token has to match
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Integer, Float> e : scores.entrySet()) {
+                        e.setValue(e.getValue() + tokenScores.get(e.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) break;
+            }
+
+            List<Map.Entry<Integer, Float>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int c = Float.compare(b.getValue(), a.getValue());
+                return c != 0 ? c : Integer.compare(b.getKey(), a.getKey());   // newer first on ties
+            });
+            List<ProductSummary> result = new ArrayList<>();
+            for (int i = 0; i < ranked.size() && result.size() < limit; i++) {
+                result.add(copyOf(index.docs.get(ranked.get(i).getKey()).summary));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // productId -> best score of any index term matching this one query token
+    private Map<Integer, Float> match(String token) {
+        TreeMap<String, Map<Integer, Float>> postings = index.postings;
+        Map<Integer, Set<String>> termsByLength = index.termsByLength;
+        Map<Integer, Float> scores = new HashMap<>();
+        Map<Integer, Float> exact = postings.get(token);
+        if (exact != null) addAll(scores, exact, 1f);
+
+        SortedMap<String, Map<Integer, Float>> prefixed = postings.subMap(token, token + Character.MAX_VALUE);
+        for (Map.Entry<String, Map<Integer, Float>> e : prefixed.entrySet()) {
+            if (!e.getKey().equals(token)) addAll(scores, e.getValue(), PREFIX_FACTOR);
+        }
+
+        // typo tolerance only for words that matched nothing as typed (and never for numbers:
+        // "2010" must not find "2011")
+        if (!scores.isEmpty() || !isWord(token)) return scores;
+        int maxEdits = token.length() >= 8 ? 2 : token.length() >= 4 ? 1 : 0;
+        for (int len = token.length() - maxEdits; len <= token.length() + maxEdits && maxEdits > 0; len++) {
+            Set<String> candidates = termsByLength.get(len);
+            if (candidates == null) continue;
+            for (String term : candidates) {
+                int d = editDistance(token, term, maxEdits);
+                if (d > 0 && d <= maxEdits) addAll(scores, postings.get(term), FUZZY_FACTOR / d);
+            }
+        }
+        return scores;
+    }
+
+    private static void addAll(Map<Integer, Float> scores, Map<Integer, Float> posting, float factor) {
+        for (Map.Entry<Integer, Float> e : posting.entrySet()) {
+            scores.merge(e.getKey(), e.getValue() * factor, Math::max);
+        }
+    }
+
+    // Levenshtein distance, giving up (returns max + 1) as soon as it must exceed max
+    static int editDistance(String a, String b, int max) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+                rowMin = Math.min(rowMin, cur[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    private static boolean isWord(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isLetter(term.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String plain = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase();
+        for (String t : plain.split("[^\\p{L}\\p{N}]+")) {
+            if (!t.isEmpty()) tokens.add(t);
+        }
+        return tokens;
+    }
+
+    // ---- index maintenance ----
+
+    private boolean isFresh() {
+        return builtAt >= 0 && System.currentTimeMillis() < freshUntil;
+    }
+
+    private void ensureBuilt() {
+        boolean haveIndex;
+        lock.readLock().lock();
+        try {
+            if (isFresh()) return;
+            haveIndex = builtAt >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+        // with an index to answer from, don't queue behind a rebuild that is already running
+        if (haveIndex) {
+            if (!rebuilding.tryLock()) return;
+        } else {
+            rebuilding.lock();
+        }
+        try {
+            lock.writeLock().lock();
+            try {
+                if (isFresh()) return;
+                pending = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // the slow part, under no lock: searches and patches carry on against the old index
+            List<Product> all = delegate.listActiveProducts();
+            Index built = new Index();
+            for (Product p : all) built.addDoc(p);
+
+            lock.writeLock().lock();
+            try {
+                List<Change> missed = pending;
+                pending = null;
+                long now = System.currentTimeMillis();
+                if (all.isEmpty()) {
+                    // failed or no catalog: an index we already have is better than nothing
+                    freshUntil = now + EMPTY_RETRY_MILLIS;
+                    if (builtAt >= 0) return;
+                } else {
+                    freshUntil = now + REBUILD_MILLIS;
+                }
+                for (Change c : missed) c.apply(built);
+                index = built;
+                builtAt = now;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    // Applies a write to the index. Creates and deletes are also kept for a rebuild in progress,
+    // whose rows may predate them; relative stock changes are not, since the rows may as well
+    // already include them (search only shows stock, checkout checks the database).
+    private void updateIndexed(Change change, boolean replay) {
+        lock.writeLock().lock();
+        try {
+            if (builtAt >= 0) change.apply(index);
+            if (replay && pending != null) pending.add(change);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustStock(Map<Integer, Integer> quantities) {
+        updateIndexed(ix -> {
+            for (Map.Entry<Integer, Integer> e : quantities.entrySet()) {
+                Doc doc = ix.docs.get(e.getKey());
+                if (doc != null) doc.summary.setStockQuantity(doc.summary.getStockQuantity() - e.getValue());
+            }
+        }, false);
+    }
+
+    // ---- ProductDAO, delegated; writes keep the index in step ----
+
+    public boolean createProduct(Product p) {
+        boolean ok = delegate.createProduct(p);
+        if (ok && p.getProductId() > 0) updateIndexed(ix -> ix.addDoc(p), true);
+        return ok;
+    }
+
+    public boolean createProducts(List<Product> products) {
+        boolean ok = delegate.createProducts(products);
+        if (ok) {
+            updateIndexed(ix -> {
+                for (Product p : products) ix.addDoc(p);
+            }, true);
+        }
+        return ok;
+    }
+
+    public Product findById(int id) {
+        return delegate.findById(id);
+    }
+
+    public Map<Integer, Product> findByIds(Collection<Integer> ids) {
+        return delegate.findByIds(ids);
+    }
+
+    public List<Product> listActiveProducts() {
+        return delegate.listActiveProducts();
+    }
+
+    public List<ProductSummary> listActiveProducts(int afterId, int limit) {
+        return delegate.listActiveProducts(afterId, limit);
+    }
+
+    public String findDescription(int productId) {
+        return delegate.findDescription(productId);
+    }
+
+    public boolean updateStock(int productId, int newStock) {
+        boolean ok = delegate.updateStock(productId, newStock);
+        if (ok) {
+            updateIndexed(ix -> {
+                Doc doc = ix.docs.get(productId);
+                if (doc != null) doc.summary.setStockQuantity(newStock);
+            }, true);
+        }
+        return ok;
+    }
+
+    public boolean tryDecrementStock(int productId, int qty) {
+        boolean ok = delegate.tryDecrementStock(productId, qty);
+        if (ok) adjustStock(Collections.singletonMap(productId, qty));
+        return ok;
+    }
+
+    public boolean tryDecrementStock(Map<Integer, Integer> quantities) {
+        boolean ok = delegate.tryDecrementStock(quantities);
+        if (ok) adjustStock(quantities);
+        return ok;
+    }
+
+    public void stockDecremented(Map<Integer, Integer> quantities) {
+        delegate.stockDecremented(quantities);
+        adjustStock(quantities);
+    }
+
+    public boolean deleteProduct(int productId) {
+        boolean ok = delegate.deleteProduct(productId);
+        if (ok) updateIndexed(ix -> ix.removeDoc(productId), true);
+        return ok;
+    }
+
+    private static ProductSummary summaryOf(Product p) {
+        ProductSummary s = new ProductSummary();
+        s.setProductId(p.getProductId());
+        s.setName(p.getName());
+        s.setPriceCents(p.getPriceCents());
+        s.setStockQuantity(p.getStockQuantity());
+        s.setImagePath(p.getImagePath());
+        return s;
+    }
+
+    private static ProductSummary copyOf(ProductSummary p) {
+        ProductSummary c = new ProductSummary();
+        c.setProductId(p.getProductId());
+        c.setName(p.getName());
+        c.setPriceCents(p.getPriceCents());
+        c.setStockQuantity(p.getStockQuantity());
+        c.setImagePath(p.getImagePath());
+        return c;
+    }
+}
@@ -0,0 +1,180 @@
+// SlowQueryLog.java
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.*;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Logs every DAO statement that runs longer than -Ddb.slowQueryMs (default 500, negative = off),
+// together with its bound parameters and the DAO method that issued it.
+//
+// Statements are grouped by shape: the SQL with literals replaced by ? and IN lists collapsed.
+// The first time a shape is slow, an EXPLAIN of it is run in the background on a separate pooled
+// connection and written to the log once, so full scans ("type: ALL") and "Using filesort" show
+// up long before the query is slow enough for anyone to complain.
+//
+// Entries go to -Ddb.slowQueryLog (default slow-queries.log) and a one-line summary to stderr.
+public class SlowQueryLog {
+
+    private static final long THRESHOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(Long.getLong("db.slowQueryMs", 500L));
+    private static final String LOG_FILE = System.getProperty("db.slowQueryLog", "slow-queries.log");
+    private static final int MAX_PARAM_LENGTH = 100;
+
+    private static final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    // One background thread for EXPLAINs; if the database is so slow that they pile up, drop them
+    private static final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(32), r -> {
+                Thread t = new Thread(r, "slow-query-explain");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    // What we know about one statement shape
+    public static class Shape {
+        final String sql;
+        long count;
+        long worstNanos;
+        volatile String plan;
+
+        Shape(String sql) {
+            this.sql = sql;
+        }
+
+        public String getSql() { return sql; }
+        public synchronized long getCount() { return count; }
+        public synchronized long getWorstMillis() { return TimeUnit.NANOSECONDS.toMillis(worstNanos); }
+        public String getPlan() { return plan; }
+    }
+
+    static boolean isEnabled() {
+        return THRESHOLD_NANOS >= 0;
+    }
+
+    static boolean isSlow(long elapsedNanos) {
+        return THRESHOLD_NANOS >= 0 && elapsedNanos >= THRESHOLD_NANOS;
+    }
+
+    // Called by PooledStatement after an execute* that crossed the threshold.
+    // params are the bound values in index order (null for a plain Statement).
+    static void record(String sql, List<Object> params, int batchSize, long elapsedNanos, ConnectionPool pool) {
+        // the EXPLAINs we issue ourselves are not interesting
+        if (sql == null || sql.regionMatches(true, 0, "EXPLAIN", 0, 7)) return;
+        String shapeSql = shapeOf(sql);
+        boolean first;
+        Shape shape = shapes.get(shapeSql);
+        if (shape == null) {
+            Shape created = new Shape(shapeSql);
+            shape = shapes.putIfAbsent(shapeSql, created);
+            first = shape == null;
+            if (first) shape = created;
+        } else {
+            first = false;
+        }
+        synchronized (shape) {
+            shape.count++;
+            shape.worstNanos = Math.max(shape.worstNanos, elapsedNanos);
+        }
+
+        String method = DaoMetrics.currentMethod();
+        double ms = elapsedNanos / 1e6;
+        StringBuilder entry = new StringBuilder();
+        entry.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()))
+                .append(String.format(" %.1f ms", ms));
+        if (method != null) entry.append(" in ").append(method);
+        if (batchSize > 0) entry.append(" (batch of ").append(batchSize).append(")");
+        entry.append(System.lineSeparator()).append("  sql:    ").append(sql.trim().replaceAll("\\s+", " "));
+        if (params != null && !params.isEmpty()) {
+            entry.append(System.lineSeparator()).append("  params: ").append(formatParams(sql, params));
+        }
+        write(entry.toString());
+        System.err.printf("Slow query (%.1f ms%s): %s%n", ms, method != null ? " in " + method : "", shapeSql);
+
+        if (first && isExplainable(sql)) {
+            List<Object> copy = params != null ? new ArrayList<>(params) : null;
+            Shape s = shape;
+            explainer.execute(() -> explain(s, sql, copy, pool));
+        }
+    }
+
+    // Statement shapes seen so far, for diagnostics
+    public static List<Shape> getShapes() {
+        return new ArrayList<>(shapes.values());
+    }
+
+    private static boolean isExplainable(String sql) {
+        String s = sql.trim().toUpperCase();
+        return s.startsWith("SELECT") || s.startsWith("UPDATE") || s.startsWith("DELETE")
+                || s.startsWith("INSERT") || s.startsWith("REPLACE");
+    }
+
+    private static void explain(Shape shape, String sql, List<Object> params, ConnectionPool pool) {
+        StringBuilder plan = new StringBuilder();
+        try (Connection conn = pool.borrow();
+             PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            if (params != null) {
+                for (int i = 0; i < params.size(); i++) ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                ResultSetMetaData md = rs.getMetaData();
+                int row = 0;
+                while (rs.next()) {
+                    plan.append(System.lineSeparator()).append("  plan[").append(row++).append("]:");
+                    for (int c = 1; c <= md.getColumnCount(); c++) {
+                        Object v = rs.getObject(c);
+                        if (v != null) plan.append(' ').append(md.getColumnLabel(c)).append('=').append(v);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            plan.append(System.lineSeparator()).append("  plan unavailable: ").append(e.getMessage());
+        }
+        shape.plan = plan.toString().trim();
+        write("EXPLAIN for shape: " + shape.sql + plan);
+    }
+
+    // Normalises a statement so that calls differing only in literal values share one shape
+    static String shapeOf(String sql) {
+        String s = sql.trim().replaceAll("\\s+", " ");
+        s = s.replaceAll("'(?:[^'\\\\]|\\\\.|'')*'", "?");        // string literals
+        s = s.replaceAll("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])", "?"); // numeric literals
+        s = s.replaceAll("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)", "(?...)"); // IN (?, ?, ?) lists
+        return s;
+    }
+
+    private static String formatParams(String sql, List<Object> params) {
+        // never put passwords in a log file
+        boolean sensitive = sql.toLowerCase().contains("password");
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < params.size(); i++) {
+            if (i > 0) sb.append(", ");
+            Object v = params.get(i);
+            if (v == null) {
+                sb.append("NULL");
+            } else if (v instanceof String) {
+                String str = sensitive ? "***" : (String) v;
+                if (str.length() > MAX_PARAM_LENGTH) str = str.substring(0, MAX_PARAM_LENGTH) + "...";
+                sb.append('\'').append(str).append('\'');
+            } else {
+                sb.append(v);
+            }
+        }
+        return sb.append(']').toString();
+    }
+
+    private static synchronized void write(String entry) {
+        try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
+            out.println(entry);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
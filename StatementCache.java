@@ -0,0 +1,163 @@
+// StatementCache.java
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// LRU cache of PreparedStatements for one physical connection.
+// The DAOs prepare the same constant SQL on every call; with the cache the second and
+// later prepares of a string are served from memory. Pooled connections use server-side
+// prepares (DBConnection.pooledProperties), so a hit skips the COM_STMT_PREPARE round trip
+// and the server's parse; evicting a statement closes it, which frees it on the server.
+// Statements handed out are proxies whose close() only puts them back into the cache.
+public class StatementCache {
+
+    // totals across every pooled connection
+    private static final AtomicLong totalHits = new AtomicLong();
+    private static final AtomicLong totalMisses = new AtomicLong();
+    private static final AtomicLong totalEvictions = new AtomicLong();
+
+    private final Connection raw;
+    private final int capacity;
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits, misses;
+
+    public StatementCache(Connection raw, int capacity) {
+        this.raw = raw;
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // Returns a cached statement for (sql, autoGeneratedKeys), preparing it on a miss
+    public synchronized PreparedStatement prepare(String sql, int autoGeneratedKeys) throws SQLException {
+        if (capacity <= 0) {
+            return raw.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        String key = autoGeneratedKeys + "|" + sql;
+        Entry e = entries.get(key);
+        if (e != null && !e.inUse) {
+            try {
+                if (!e.stmt.isClosed()) {
+                    hits++;
+                    totalHits.incrementAndGet();
+                    e.inUse = true;
+                    return e.proxy;
+                }
+            } catch (SQLException ignored) {
+            }
+            entries.remove(key);
+        } else if (e != null) {
+            // same SQL is already open on this connection (nested use): hand out a plain statement
+            misses++;
+            totalMisses.incrementAndGet();
+            return raw.prepareStatement(sql, autoGeneratedKeys);
+        }
+
+        misses++;
+        totalMisses.incrementAndGet();
+        e = new Entry(raw.prepareStatement(sql, autoGeneratedKeys));
+        e.inUse = true;
+        entries.put(key, e);
+        evictIfNeeded();
+        return e.proxy;
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > capacity && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest.inUse) continue;
+            it.remove();
+            totalEvictions.incrementAndGet();
+            closeQuietly(eldest.stmt);
+        }
+    }
+
+    // Closes every cached statement; called when the physical connection is destroyed
+    public synchronized void clear() {
+        for (Entry e : entries.values()) closeQuietly(e.stmt);
+        entries.clear();
+    }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized int size() { return entries.size(); }
+
+    public static long getTotalHits() { return totalHits.get(); }
+    public static long getTotalMisses() { return totalMisses.get(); }
+    public static long getTotalEvictions() { return totalEvictions.get(); }
+
+    private static void closeQuietly(Statement s) {
+        try {
+            s.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private synchronized void giveBack(Entry e) {
+        e.inUse = false;
+        evictIfNeeded();
+    }
+
+    // One cached statement plus the result sets it produced since it was last handed out
+    private class Entry implements InvocationHandler {
+        final PreparedStatement stmt;
+        final PreparedStatement proxy;
+        final List<ResultSet> openResults = new ArrayList<>(2);
+        volatile boolean inUse;
+
+        Entry(PreparedStatement stmt) {
+            this.stmt = stmt;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    StatementCache.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class},
+                    this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (inUse) recycle();
+                    return null;
+                case "isClosed":
+                    return !inUse || stmt.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+            }
+            if (!inUse) throw new SQLException("Statement has already been closed");
+            Object result;
+            try {
+                result = method.invoke(stmt, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (result instanceof ResultSet) openResults.add((ResultSet) result);
+            return result;
+        }
+
+        // Logical close: drop results and parameters so the next borrower starts clean
+        private void recycle() {
+            try {
+                for (ResultSet rs : openResults) rs.close();
+                stmt.clearParameters();
+                stmt.clearBatch();
+                stmt.clearWarnings();
+            } catch (SQLException ex) {
+                closeQuietly(stmt);
+            } finally {
+                openResults.clear();
+                giveBack(this);
+            }
+        }
+    }
+}
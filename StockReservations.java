@@ -0,0 +1,127 @@
+// StockReservations.java
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Time-limited holds on stock for items sitting in a cart.
+//
+// reserve() places a hold only if the product's available-to-sell figure covers it; a hold
+// lapses after -Dstore.reservation.ttlSeconds (default 900) unless it is settled or released
+// first. Expiry is driven by a TimingWheel, so thousands of open carts cost one slot visit per
+// second. Reserved quantities are kept as a running total per product, which makes
+//     available to sell = stock - reserved
+// a single map lookup instead of a scan over every cart.
+//
+// Holds live in this application instance. The conditional decrement in OrderDAO.placeOrder is
+// still what guarantees stock never goes negative when several instances sell the same product.
+public class StockReservations {
+
+    private static final long TTL_MILLIS = Long.getLong("store.reservation.ttlSeconds", 900L) * 1000L;
+
+    private final ProductDAO productDAO;
+    private final Map<Integer, AtomicInteger> reserved = new ConcurrentHashMap<>();
+    private final TimingWheel<Hold> wheel = new TimingWheel<>("stock-reservations", 1000, 512, this::expire);
+    private final AtomicLong ids = new AtomicLong();
+
+    // One hold: qty units of one product, until it expires, is released or is settled
+    public class Hold {
+        private final long id;
+        private final int productId;
+        private final int qty;
+        private final long expiresAt;
+        private TimingWheel<Hold>.Timeout timeout;
+        private boolean active = true;
+
+        Hold(int productId, int qty) {
+            this.id = ids.incrementAndGet();
+            this.productId = productId;
+            this.qty = qty;
+            this.expiresAt = System.currentTimeMillis() + TTL_MILLIS;
+        }
+
+        public long getId() { return id; }
+        public int getProductId() { return productId; }
+        public int getQty() { return qty; }
+        public long getExpiresAt() { return expiresAt; }
+        public synchronized boolean isActive() { return active; }
+
+        // Takes the hold out of the totals exactly once, however it ends
+        synchronized boolean end() {
+            if (!active) return false;
+            active = false;
+            reserved.get(productId).addAndGet(-qty);
+            return true;
+        }
+    }
+
+    public StockReservations(ProductDAO productDAO) {
+        this.productDAO = productDAO;
+    }
+
+    // Stock minus what open carts hold; -1 if the product doesn't exist (or is inactive)
+    public int availableToSell(int productId) {
+        Product p = currentProduct(productId);
+        if (p == null) return -1;
+        return p.getStockQuantity() - reservedFor(productId);
+    }
+
+    public int reservedFor(int productId) {
+        AtomicInteger r = reserved.get(productId);
+        return r == null ? 0 : r.get();
+    }
+
+    // Holds qty units for the cart, or returns null if they aren't available
+    public Hold reserve(int productId, int qty) {
+        if (qty <= 0) return null;
+        Product p = currentProduct(productId);
+        if (p == null) return null;
+
+        AtomicInteger r = reserved.computeIfAbsent(productId, k -> new AtomicInteger());
+        // claim the units with a CAS, so two carts can't both get the last one
+        while (true) {
+            int current = r.get();
+            if (p.getStockQuantity() - current < qty) return null;
+            if (r.compareAndSet(current, current + qty)) break;
+        }
+        Hold h = new Hold(productId, qty);
+        h.timeout = wheel.schedule(h, TTL_MILLIS);
+        return h;
+    }
+
+    // Gives the units back (item removed, cart abandoned)
+    public void release(Hold h) {
+        if (h.end()) h.timeout.cancel();
+    }
+
+    public void releaseAll(Collection<Hold> holds) {
+        for (Hold h : holds) release(h);
+    }
+
+    // Checkout through OrderDAO.placeOrder, which took the stock in its own transaction: tells
+    // the product caches and gives up the holds
+    public void settled(Collection<Hold> holds) {
+        productDAO.stockDecremented(quantitiesOf(holds));
+        releaseAll(holds);
+    }
+
+    // The product as the database has it now. findById may be answered from the catalog cache,
+    // whose stock can lag other checkouts by up to its TTL; findByIds always reads through.
+    private Product currentProduct(int productId) {
+        Product p = productDAO.findByIds(List.of(productId)).get(productId);
+        return p != null && p.isActive() ? p : null;
+    }
+
+    private static Map<Integer, Integer> quantitiesOf(Collection<Hold> holds) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Hold h : holds) quantities.merge(h.getProductId(), h.getQty(), Integer::sum);
+        return quantities;
+    }
+
+    private void expire(Hold h) {
+        h.end();
+    }
+}
@@ -1,13 +1,19 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import java.util.ArrayList;
 import java.util.List;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 
 
 public class StoreAppSwing extends JFrame {
@@ -15,10 +21,14 @@ public class StoreAppSwing extends JFrame {
     private final CardLayout cardLayout = new CardLayout();
     private final JPanel mainPanel = new JPanel(cardLayout);
 
-    private final UserDAO userDAO = new UserDAO();
-    private final ProductDAO productDAO = new ProductDAO();
-    private final CouponDAO couponDAO = new CouponDAO();
-    private final OrderDAO orderDAO = new OrderDAO();
+    private final UserDAO userDAO = DAOFactory.userDAO();
+    private final ProductDAO productDAO = DAOFactory.productDAO();
+    private final CouponDAO couponDAO = DAOFactory.couponDAO();
+    private final OrderDAO orderDAO = DAOFactory.orderDAO();
+    private final SearchableProductDAO productSearch = DAOFactory.productSearch();
+    private final SalesReportDAO salesReportDAO = DAOFactory.salesReportDAO();
+    private final OrderExportDAO orderExportDAO = DAOFactory.orderExportDAO();
+    private final StockReservations reservations = new StockReservations(productDAO);
 
     private User currentUser;
 
@@ -32,6 +42,24 @@ public class StoreAppSwing extends JFrame {
         f.setMaximumSize(new Dimension(150, 26));
     }
 
+    // "• Arsenal Home x2  @ $59.99 → $119.98" per line, then the coupon if one was used
+    private static String describeOrder(String heading, OrderDetail d) {
+        StringBuilder sb = new StringBuilder(heading).append("\n\n");
+        for (OrderDetail.Line l : d.getLines()) {
+            sb.append("• ").append(l.getProductName() != null ? l.getProductName() : "Product #" + l.getProductId())
+                    .append(" x").append(l.getQuantity())
+                    .append("  @ $");
+            Money.appendTo(sb, l.getUnitPriceCents()).append(" → $");
+            Money.appendTo(sb, l.getLineTotalCents()).append("\n");
+        }
+        if (d.hasCoupon()) {
+            sb.append("• Coupon Applied: ").append(d.getCouponCode()).append(" (");
+            Money.appendTo(sb, d.getCouponHundredths())
+                    .append("PERCENT".equals(d.getCouponType()) ? " % OFF)" : " $ OFF)").append("\n");
+        }
+        return sb.toString();
+    }
+
     public StoreAppSwing() {
         setTitle("Online Football Shirt Store");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -69,6 +97,10 @@ public class StoreAppSwing extends JFrame {
     public ProductDAO getProductDAO() { return productDAO; }
     public CouponDAO getCouponDAO() { return couponDAO; }
     public OrderDAO getOrderDAO() { return orderDAO; }
+    public SearchableProductDAO getProductSearch() { return productSearch; }
+    public SalesReportDAO getSalesReportDAO() { return salesReportDAO; }
+    public OrderExportDAO getOrderExportDAO() { return orderExportDAO; }
+    public StockReservations getReservations() { return reservations; }
     public User getCurrentUser() { return currentUser; }
 
     public void loginAs(User user) {
@@ -224,17 +256,20 @@ public class StoreAppSwing extends JFrame {
 
         private final StoreAppSwing app;
         private User user;
-        private DefaultTableModel productsModel, cartModel;
+        private ProductTableModel productsModel;
+        private DefaultTableModel cartModel;
         private JTable productsTable, cartTable;
         private JSpinner qtySpinner;
+        private JTextField searchField;
         private JLabel totalLbl;
-        private DefaultListModel<String> ordersModel;
-        private JList<String> ordersList;
+        private OrderTableModel ordersModel;
+        private JTable ordersTable;
         private JTextField cancelField;
 
         private static class CartEntry {
             Product p; int qty;
-            CartEntry(Product p,int q){this.p=p;this.qty=q;}
+            StockReservations.Hold hold;   // keeps the units aside while they sit in the cart
+            CartEntry(Product p,int q,StockReservations.Hold h){this.p=p;this.qty=q;this.hold=h;}
         }
         private final List<CartEntry> cart = new ArrayList<>();
 
@@ -254,6 +289,9 @@ public class StoreAppSwing extends JFrame {
 
         public void setLoggedInUser(User u){
             this.user = u;
+            // a new session starts with an empty cart; give back whatever the last one held
+            for (CartEntry ce : cart) app.getReservations().release(ce.hold);
+            cart.clear();
             refreshProducts();
             refreshOrders();
             loadProfile();
@@ -262,19 +300,34 @@ public class StoreAppSwing extends JFrame {
 
         private JPanel shop() {
             JPanel p = new JPanel(new BorderLayout(5,5));
-            productsModel=new DefaultTableModel(new Object[]{"ID","Name","Price","Stock","Image"},0) {
-                @Override
-                public Class<?> getColumnClass(int columnIndex) {
-                    if (columnIndex == 4) return ImageIcon.class;
-                    return Object.class;
-                }
+            // customers see stock net of what is sitting in carts
+            productsModel = new ProductTableModel(app.getProductDAO(), app.getReservations());
+            productsTable = new JTable(productsModel);
+            JScrollPane productsScroll = new JScrollPane(productsTable);
+            productsModel.attach(productsTable, productsScroll);
+            // double-click a kit to see its description (loaded only then)
+            productsTable.addMouseListener(new MouseAdapter() {
                 @Override
-                public boolean isCellEditable(int row, int col) {
-                    return false;
+                public void mouseClicked(MouseEvent e) {
+                    if (e.getClickCount() == 2) showProductDetail();
                 }
-            };
-            productsTable = new JTable(productsModel);
-            p.add(new JScrollPane(productsTable), BorderLayout.CENTER);
+            });
+            p.add(productsScroll, BorderLayout.CENTER);
+
+            // search as you type; an empty box goes back to the full, paged list
+            JPanel searchBar = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            searchField = new JTextField(25);
+            searchField.getDocument().addDocumentListener(new DocumentListener() {
+                public void insertUpdate(DocumentEvent e) { refreshProducts(); }
+                public void removeUpdate(DocumentEvent e) { refreshProducts(); }
+                public void changedUpdate(DocumentEvent e) { refreshProducts(); }
+            });
+            JButton clearBtn = new JButton("Clear");
+            clearBtn.addActionListener(e -> searchField.setText(""));
+            searchBar.add(new JLabel("Search kits:"));
+            searchBar.add(searchField);
+            searchBar.add(clearBtn);
+            p.add(searchBar, BorderLayout.NORTH);
 
             cartModel = new DefaultTableModel(new Object[]{"Product","Qty","Price","Total"},0);
             cartTable = new JTable(cartModel);
@@ -293,6 +346,10 @@ public class StoreAppSwing extends JFrame {
             addBtn.addActionListener(e->addCart());
             controls.add(addBtn);
 
+            JButton removeBtn = new JButton("Remove");
+            removeBtn.addActionListener(e->removeFromCart());
+            controls.add(removeBtn);
+
             totalLbl = new JLabel("Total: $0.00");
             JButton checkout = new JButton("Checkout");
             checkout.addActionListener(e->checkout());
@@ -305,30 +362,26 @@ public class StoreAppSwing extends JFrame {
         }
 
         private void refreshProducts() {
-            productsModel.setRowCount(0);
-
-            for (Product p : app.getProductDAO().listActiveProducts()) {
-                String path = p.getImagePath();
-                ImageIcon icon;
-
-                if (path == null || path.isEmpty()) {
-                    icon = new ImageIcon("placeholder.png");
-                } else {
-                    icon = new ImageIcon(path);
-                }
-
-                Image scaled = icon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-                icon = new ImageIcon(scaled);
-
-                productsModel.addRow(new Object[]{
-                        p.getProductId(),
-                        p.getName(),
-                        String.format("$%.2f", p.getPrice()),
-                        p.getStockQuantity(),
-                        icon
-                });
+            String query = searchField.getText().trim();
+            if (query.isEmpty()) {
+                productsModel.reload();
+            } else {
+                productsModel.showRows(app.getProductSearch().search(query, 200));
             }
-            productsTable.setRowHeight(55);
+        }
+
+        private void showProductDetail() {
+            int row = productsTable.getSelectedRow();
+            if (row < 0) return;
+            ProductSummary p = productsModel.getProductAt(row);
+            String desc = app.getProductDAO().findDescription(p.getProductId());
+
+            JTextArea area = new JTextArea(desc == null || desc.isEmpty() ? "(no description)" : desc, 8, 40);
+            area.setLineWrap(true);
+            area.setWrapStyleWord(true);
+            area.setEditable(false);
+            JOptionPane.showMessageDialog(this, new JScrollPane(area),
+                    p.getName() + " - " + Money.format(p.getPriceCents()), JOptionPane.INFORMATION_MESSAGE);
         }
 
         private void addCart() {
@@ -337,23 +390,44 @@ public class StoreAppSwing extends JFrame {
             int id = (int)productsModel.getValueAt(row,0);
             Product p = app.getProductDAO().findById(id);
             int qty = (int)qtySpinner.getValue();
-            if(qty<=p.getStockQuantity()) {
-                cart.add(new CartEntry(p,qty));
+            StockReservations.Hold hold = app.getReservations().reserve(id, qty);
+            if (hold != null) {
+                cart.add(new CartEntry(p,qty,hold));
                 refreshCart();
+                productsModel.fireTableDataChanged();
+            } else {
+                JOptionPane.showMessageDialog(this,
+                        "Only " + Math.max(0, app.getReservations().availableToSell(id)) + " available.",
+                        "Cart", JOptionPane.WARNING_MESSAGE);
             }
         }
 
+        private void removeFromCart() {
+            int row = cartTable.getSelectedRow();
+            if (row < 0) return;
+            app.getReservations().release(cart.remove(row).hold);
+            refreshCart();
+            productsModel.fireTableDataChanged();
+        }
+
         private void refreshCart() {
             cartModel.setRowCount(0);
-            double total = 0;
             for (CartEntry ce : cart) {
-                double line = ce.p.getPrice()*ce.qty;
-                total+=line;
                 cartModel.addRow(new Object[]{ ce.p.getName(), ce.qty,
-                        String.format("$%.2f",ce.p.getPrice()),
-                        String.format("$%.2f",line)});
+                        Money.format(ce.p.getPriceCents()),
+                        Money.format(Money.times(ce.p.getPriceCents(), ce.qty))});
+            }
+            totalLbl.setText("Total: " + Money.format(cartSubtotal()));
+        }
+
+        // Sum of the cart lines in cents: a plain loop, no streams or boxing
+        private long cartSubtotal() {
+            long total = 0;
+            for (int i = 0; i < cart.size(); i++) {
+                CartEntry ce = cart.get(i);
+                total = Math.addExact(total, Money.times(ce.p.getPriceCents(), ce.qty));
             }
-            totalLbl.setText(String.format("Total: $%.2f",total));
+            return total;
         }
 
         private void checkout() {
@@ -363,45 +437,48 @@ public class StoreAppSwing extends JFrame {
             if(code!=null && !code.trim().isEmpty()){
                 c=app.getCouponDAO().findByCode(code.trim());
             }
-            double total=cart.stream()
-                    .mapToDouble(ce->ce.p.getPrice()*ce.qty)
-                    .sum();
-            Integer cId=null;
-            if(c!=null){
-                cId=c.getCouponId();
-                if("PERCENT".equals(c.getDiscountType()))
-                    total-=total*(c.getDiscountValue()/100.0);
-                else total-=c.getDiscountValue();
-                if(total<0) total=0;
+            Integer cId=c!=null?c.getCouponId():null;
+
+            // one transaction: stock for every line, the order and its items (the DAO works out
+            // the total, coupon included)
+            List<OrderItem> lines=new ArrayList<>();
+            List<StockReservations.Hold> holds=new ArrayList<>();
+            for (CartEntry ce : cart){
+                OrderItem it=new OrderItem();
+                it.setProductId(ce.p.getProductId());
+                it.setQuantity(ce.qty);
+                it.setUnitPriceCents(ce.p.getPriceCents());
+                lines.add(it);
+                holds.add(ce.hold);
             }
-            int orderId=app.getOrderDAO().createOrder(user.getUserId(),cId,total);
-            if(orderId>0){
-                for (CartEntry ce : cart){
-                    app.getOrderDAO().addOrderItem(orderId,
-                            ce.p.getProductId(),ce.qty,ce.p.getPrice());
-                    app.getProductDAO().updateStock(ce.p.getProductId(),
-                            ce.p.getStockQuantity()-ce.qty);
-                }
-                JOptionPane.showMessageDialog(this,"Order placed! ID="+orderId);
-                cart.clear();refreshCart();refreshProducts();refreshOrders();
+            int orderId=app.getOrderDAO().placeOrder(user.getUserId(),cId,lines);
+            if(orderId<=0){
+                JOptionPane.showMessageDialog(this,
+                        "Sorry, your order could not be placed. Some items in your cart may no longer be in stock.",
+                        "Checkout", JOptionPane.WARNING_MESSAGE);
+                refreshProducts();
+                return;
             }
+            app.getReservations().settled(holds);
+            JOptionPane.showMessageDialog(this,"Order placed! ID="+orderId);
+            cart.clear();refreshCart();refreshProducts();refreshOrders();
         }
 
         private JPanel orders() {
             JPanel p = new JPanel(new BorderLayout(5,5));
             p.setBorder(BorderFactory.createTitledBorder("Your Orders"));
 
-            ordersModel=new DefaultListModel<>();
-            ordersList=new JList<>(ordersModel);
-            p.add(new JScrollPane(ordersList),BorderLayout.CENTER);
+            ordersModel=new OrderTableModel(false);
+            ordersTable=new JTable(ordersModel);
+            ordersModel.attach(ordersTable, ListSelectionModel.SINGLE_SELECTION);
+            p.add(new JScrollPane(ordersTable),BorderLayout.CENTER);
 
             // 🔥 NEW: view item details when clicking order
-            ordersList.addListSelectionListener(e -> {
+            ordersTable.getSelectionModel().addListSelectionListener(e -> {
                 if (!e.getValueIsAdjusting()) {
-                    String s = ordersList.getSelectedValue();
-                    if (s == null) return;
-                    int id = Integer.parseInt(s.split("#")[1].split(" ")[0]);
-                    showOrderDetails(id);
+                    OrderSummary o = ordersModel.getSelectedOrder(ordersTable);
+                    if (o == null) return;
+                    showOrderDetails(o.getOrderId());
                 }
             });
 
@@ -428,19 +505,14 @@ public class StoreAppSwing extends JFrame {
         }
 
         private void showOrderDetails(int orderId) {
-            List<String> details = app.getOrderDAO().getOrderDetails(orderId);
-
-            StringBuilder sb = new StringBuilder("Items in order:\n\n");
-            for (String d : details) sb.append("• ").append(d).append("\n");
-
-            JOptionPane.showMessageDialog(this, sb.toString(),
+            OrderDetail d = app.getOrderDAO().getOrderDetails(orderId);
+            if (d == null) return;
+            JOptionPane.showMessageDialog(this, describeOrder("Items in order:", d),
                     "Order #" + orderId, JOptionPane.INFORMATION_MESSAGE);
         }
 
         private void refreshOrders() {
-            ordersModel.clear();
-            for(String s: app.getOrderDAO().listOrdersForCustomer(user.getUserId()))
-                ordersModel.addElement(s);
+            ordersModel.setRows(app.getOrderDAO().listOrdersForCustomer(user.getUserId()));
         }
 
         private void cancelOrder() {
@@ -519,11 +591,11 @@ public class StoreAppSwing extends JFrame {
         private final StoreAppSwing app;
         private User user;
         JTable prodTable, custTable;
-        DefaultTableModel prodModel, custModel;
+        ProductTableModel prodModel;
+        DefaultTableModel custModel;
         JTextField nameF, descF, priceF, qtyF;
         JLabel imgLbl;
-        DefaultListModel<String> ordersModel;
-        JList<String> ordersList;
+        OrderBrowser orderBrowser;
         JTextField codeF, valF, descC;
         JComboBox<String> typeC;
 
@@ -556,21 +628,11 @@ public class StoreAppSwing extends JFrame {
             JPanel p = new JPanel(new BorderLayout(3, 3));
             p.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
 
-            prodModel = new DefaultTableModel(new Object[]{"ID", "Name", "Price", "Stock", "Image"}, 0) {
-                @Override
-                public Class<?> getColumnClass(int columnIndex) {
-                    if (columnIndex == 4) return ImageIcon.class;
-                    return Object.class;
-                }
-
-                @Override
-                public boolean isCellEditable(int row, int column) {
-                    return false;
-                }
-            };
-
+            prodModel = new ProductTableModel(app.getProductDAO());
             prodTable = new JTable(prodModel);
-            p.add(new JScrollPane(prodTable), BorderLayout.CENTER);
+            JScrollPane prodScroll = new JScrollPane(prodTable);
+            prodModel.attach(prodTable, prodScroll);
+            p.add(prodScroll, BorderLayout.CENTER);
 
             JPanel form = new JPanel(new GridBagLayout());
             form.setBorder(BorderFactory.createTitledBorder("Create Product"));
@@ -652,37 +714,17 @@ public class StoreAppSwing extends JFrame {
             create.addActionListener(e -> createProduct());
             form.add(create, gbc);
 
+            gbc.gridx = 2;
+            JButton bulk = new JButton("Bulk Import...");
+            bulk.addActionListener(e -> bulkImport(bulk));
+            form.add(bulk, gbc);
+
             p.add(form, BorderLayout.SOUTH);
             return p;
         }
 
         private void refreshProducts() {
-            prodModel.setRowCount(0);
-
-            for (Product p : app.getProductDAO().listActiveProducts()) {
-
-                String path = p.getImagePath();
-                ImageIcon icon;
-
-                if (path == null || path.isEmpty()) {
-                    icon = new ImageIcon("placeholder.png"); // make sure this exists
-                } else {
-                    icon = new ImageIcon(path);
-                }
-
-                Image scaled = icon.getImage().getScaledInstance(50, 50, Image.SCALE_SMOOTH);
-                icon = new ImageIcon(scaled);
-
-                prodModel.addRow(new Object[]{
-                        p.getProductId(),
-                        p.getName(),
-                        String.format("$%.2f", p.getPrice()),
-                        p.getStockQuantity(),
-                        icon
-                });
-            }
-
-            prodTable.setRowHeight(55);
+            prodModel.reload();
         }
 
         private void createProduct() {
@@ -690,7 +732,7 @@ public class StoreAppSwing extends JFrame {
                 Product p = new Product();
                 p.setName(nameF.getText().trim());
                 p.setDescription(descF.getText().trim());
-                p.setPrice(Double.parseDouble(priceF.getText().trim()));
+                p.setPriceCents(Money.parse(priceF.getText()));
                 p.setStockQuantity(Integer.parseInt(qtyF.getText().trim()));
 
                 String selectedPath = (String) imgLbl.getClientProperty("file");
@@ -725,6 +767,68 @@ public class StoreAppSwing extends JFrame {
             }
         }
 
+        // Imports a CSV/JSON manifest in the background; one summary at the end instead of a
+        // dialog per product
+        private void bulkImport(JButton button) {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setFileFilter(new FileNameExtensionFilter("Product manifests (csv, json, ndjson)", "csv", "json", "ndjson"));
+            if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            File manifest = chooser.getSelectedFile();
+
+            JProgressBar bar = new JProgressBar();
+            bar.setIndeterminate(true);
+            bar.setStringPainted(true);
+            bar.setString("Starting...");
+            JDialog progress = new JDialog(SwingUtilities.getWindowAncestor(this), "Importing " + manifest.getName());
+            progress.add(bar);
+            progress.setSize(420, 70);
+            progress.setLocationRelativeTo(this);
+            progress.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+            button.setEnabled(false);
+            progress.setVisible(true);
+
+            new SwingWorker<ProductImporter.Report, String>() {
+                @Override
+                protected ProductImporter.Report doInBackground() throws Exception {
+                    return new ProductImporter(app.getProductDAO())
+                            .importFile(manifest, r -> publish(r.getImported() + " imported, " + r.getSkipped() + " skipped"));
+                }
+
+                @Override
+                protected void process(List<String> updates) {
+                    bar.setString(updates.get(updates.size() - 1));
+                }
+
+                @Override
+                protected void done() {
+                    progress.dispose();
+                    button.setEnabled(true);
+                    refreshProducts();
+                    try {
+                        ProductImporter.Report r = get();
+                        if (r.getErrors().isEmpty()) {
+                            JOptionPane.showMessageDialog(EmployeePanel.this, r.toString(), "Import finished",
+                                    JOptionPane.INFORMATION_MESSAGE);
+                        } else {
+                            JTextArea problems = new JTextArea(String.join("\n", r.getErrors()), 12, 60);
+                            problems.setEditable(false);
+                            JPanel msg = new JPanel(new BorderLayout(4, 4));
+                            msg.add(new JLabel(r.toString()), BorderLayout.NORTH);
+                            msg.add(new JScrollPane(problems), BorderLayout.CENTER);
+                            JOptionPane.showMessageDialog(EmployeePanel.this, msg, "Import finished with problems",
+                                    JOptionPane.WARNING_MESSAGE);
+                        }
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(EmployeePanel.this,
+                                "Import failed: " + cause.getMessage(),
+                                "Import Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        }
+
         private JPanel customers() {
             JPanel p = new JPanel(new BorderLayout());
             p.setBorder(BorderFactory.createTitledBorder("Customers"));
@@ -744,35 +848,24 @@ public class StoreAppSwing extends JFrame {
         private JPanel orders() {
             JPanel p = new JPanel(new BorderLayout());
             p.setBorder(BorderFactory.createTitledBorder("Orders"));
-            ordersModel = new DefaultListModel<>();
-            ordersList = new JList<>(ordersModel);
-            p.add(new JScrollPane(ordersList), BorderLayout.CENTER);
+            orderBrowser = new OrderBrowser(app.getOrderDAO());
+            p.add(orderBrowser, BorderLayout.CENTER);
 
             // 🔥 NEW: view item details when clicking order
-            ordersList.addListSelectionListener(e -> {
-                if (!e.getValueIsAdjusting()) {
-                    String s = ordersList.getSelectedValue();
-                    if (s == null) return;
-                    int id = Integer.parseInt(s.split("#")[1].split(" ")[0]);
-                    showOrderDetails(id);
-                }
-            });
+            orderBrowser.onSelect(o -> showOrderDetails(o.getOrderId()));
 
             return p;
         }
 
         private void showOrderDetails(int orderId) {
-            List<String> details = app.getOrderDAO().getOrderDetails(orderId);
-            StringBuilder sb = new StringBuilder("Order Details:\n\n");
-            for (String d : details) sb.append("• ").append(d).append("\n");
-            JOptionPane.showMessageDialog(this, sb.toString(),
+            OrderDetail d = app.getOrderDAO().getOrderDetails(orderId);
+            if (d == null) return;
+            JOptionPane.showMessageDialog(this, describeOrder("Order Details:", d),
                     "Order #" + orderId, JOptionPane.INFORMATION_MESSAGE);
         }
 
         private void refreshOrders() {
-            ordersModel.clear();
-            for (String s : app.getOrderDAO().listAllOrdersWithCustomerName())
-                ordersModel.addElement(s);
+            orderBrowser.reload();
         }
 
         private JPanel coupons() {
@@ -838,7 +931,7 @@ public class StoreAppSwing extends JFrame {
             couponModel.setRowCount(0);
             for (Coupon c : app.getCouponDAO().listAllCoupons()) {
                 couponModel.addRow(new Object[]{
-                        c.getCouponId(), c.getCode(), c.getDiscountType(), c.getDiscountValue()
+                        c.getCouponId(), c.getCode(), c.getDiscountType(), Money.plain(c.getDiscountHundredths())
                 });
             }
         }
@@ -847,7 +940,7 @@ public class StoreAppSwing extends JFrame {
             try {
                 Coupon c = new Coupon();
                 c.setCode(codeF.getText().trim());
-                c.setDiscountValue(Double.parseDouble(valF.getText().trim()));
+                c.setDiscountHundredths(Money.parse(valF.getText()));
                 c.setDiscountType((String) typeC.getSelectedItem());
                 c.setDescription(descC.getText().trim());
 
@@ -873,8 +966,7 @@ public class StoreAppSwing extends JFrame {
 
         // delete user
         private JTextField userIdDel;
-        private DefaultListModel<String> ordersModel;
-        private JList<String> ordersList;
+        private OrderBrowser orderBrowser;
 
         // update customer
         private JTextField custIdEdit, custNameEdit, custAddrEdit, custUserEdit;
@@ -888,12 +980,18 @@ public class StoreAppSwing extends JFrame {
         private JTextField orderIdChg, orderIdDelete;
         private JComboBox<String> statusBox;
 
+        // analytics
+        private JTextField salesFrom, salesTo;
+        private JLabel revenueLabel, ordersLabel, unitsLabel, avgLabel, answeredLabel;
+        private DefaultTableModel dailyModel, topModel;
+
         public AdminPanel(StoreAppSwing app) {
             this.app = app;
             setLayout(new BorderLayout(8,8));
             JTabbedPane tabs=new JTabbedPane();
             tabs.add("Employees & Customers", employees());
             tabs.add("Orders", orders());
+            tabs.add("Analytics", analytics());
             add(tabs,BorderLayout.CENTER);
 
             JButton logout=new JButton("Logout");
@@ -1110,8 +1208,9 @@ public class StoreAppSwing extends JFrame {
             }
         }
         private void showOrderDetails(int orderId) {
-            List<OrderItem> items = app.getOrderDAO().getOrderItems(orderId);
-            if (items == null || items.isEmpty()) {
+            // lines, product names and coupon in one (usually cached) call
+            OrderDetail d = app.getOrderDAO().getOrderDetails(orderId);
+            if (d == null || d.getLines().isEmpty()) {
                 JOptionPane.showMessageDialog(this,
                         "No items found for this order.",
                         "Order Details",
@@ -1119,28 +1218,7 @@ public class StoreAppSwing extends JFrame {
                 return;
             }
 
-            StringBuilder sb = new StringBuilder("Order #" + orderId + " Items:\n\n");
-            for (OrderItem it : items) {
-                Product p = app.getProductDAO().findById(it.getProductId());
-                sb.append(p.getName())
-                        .append(" x ")
-                        .append(it.getQuantity())
-                        .append(" @ $")
-                        .append(String.format("%.2f", it.getUnitPrice()))
-                        .append(" = $")
-                        .append(String.format("%.2f", it.getLineTotal()))
-                        .append("\n");
-            }
-
-            Coupon coupon = app.getOrderDAO().getCouponForOrder(orderId);
-            if (coupon != null) {
-                sb.append("\nCoupon Applied: ").append(coupon.getCode())
-                        .append(" (").append(coupon.getDiscountType())
-                        .append(" ")
-                        .append(coupon.getDiscountValue()).append(")");
-            }
-
-            JOptionPane.showMessageDialog(this, sb.toString(),
+            JOptionPane.showMessageDialog(this, describeOrder("Order #" + orderId + " Items:", d),
                     "Order Details",
                     JOptionPane.INFORMATION_MESSAGE);
         }
@@ -1158,9 +1236,7 @@ public class StoreAppSwing extends JFrame {
             orderIdChg = new JTextField();
             styleField(orderIdChg);
 
-            statusBox = new JComboBox<>(new String[]{
-                    "PENDING","PROCESSING","SHIPPED","DELIVERED","CANCELLED"
-            });
+            statusBox = new JComboBox<>(OrderStatus.ALL.toArray(new String[0]));
 
             gbc.gridx=0; gbc.gridy=0;
             form.add(new JLabel("Order ID:"),gbc);
@@ -1177,70 +1253,295 @@ public class StoreAppSwing extends JFrame {
             update.addActionListener(e -> changeStatus());
             form.add(update, gbc);
 
+            JButton updateSelected = new JButton("Change Selected Orders");
+            updateSelected.setToolTipText("Ctrl/Shift-click orders in the list, then pick the new status");
+            gbc.gridx=1; gbc.gridy=3;
+            updateSelected.addActionListener(e -> changeSelectedStatus());
+            form.add(updateSelected, gbc);
+
             // Divider
-            gbc.gridx=0; gbc.gridy=3;
+            gbc.gridx=0; gbc.gridy=4;
             gbc.gridwidth=2;
             form.add(new JSeparator(), gbc);
             gbc.gridwidth=1;
 
             orderIdDelete = new JTextField();
             styleField(orderIdDelete);
-            gbc.gridx=0; gbc.gridy=4;
+            gbc.gridx=0; gbc.gridy=5;
             form.add(new JLabel("Delete Order ID:"), gbc);
             gbc.gridx=1;
             form.add(orderIdDelete, gbc);
 
             JButton delOrderBtn = new JButton("Delete Order");
-            gbc.gridx=1; gbc.gridy=5;
+            gbc.gridx=1; gbc.gridy=6;
             delOrderBtn.addActionListener(e -> deleteOrder());
             form.add(delOrderBtn, gbc);
 
+            JButton delSelectedBtn = new JButton("Delete Selected Orders");
+            gbc.gridx=1; gbc.gridy=7;
+            delSelectedBtn.addActionListener(e -> deleteSelectedOrders());
+            form.add(delSelectedBtn, gbc);
+
+            // Divider
+            gbc.gridx=0; gbc.gridy=8;
+            gbc.gridwidth=2;
+            form.add(new JSeparator(), gbc);
+            gbc.gridwidth=1;
+
+            JButton exportBtn = new JButton("Export All Orders...");
+            exportBtn.setToolTipText("Every order with its customer, coupon and lines, as CSV or NDJSON");
+            gbc.gridx=1; gbc.gridy=9;
+            exportBtn.addActionListener(e -> exportOrders(exportBtn));
+            form.add(exportBtn, gbc);
+
             p.add(form, BorderLayout.WEST);
 
 
             // === RIGHT SIDE (Order List & Details) ===
-            ordersModel = new DefaultListModel<>();
-            ordersList = new JList<>(ordersModel);
+            orderBrowser = new OrderBrowser(app.getOrderDAO());
+            orderBrowser.onSelect(o -> showOrderDetails(o.getOrderId()));
 
-            ordersList.addListSelectionListener(e -> {
-                if (!e.getValueIsAdjusting()) {
-                    String s = ordersList.getSelectedValue();
-                    if (s == null) return;
+            orderBrowser.setPreferredSize(new Dimension(450,300));
+            p.add(orderBrowser, BorderLayout.CENTER);
+
+            refreshOrders(); // Populate list on load
+            return p;
+        }
+
+        // Everything here is read from the sales_daily / sales_by_product aggregates, never
+        // from the order history itself
+        private JPanel analytics() {
+            JPanel p = new JPanel(new BorderLayout(8, 8));
+            p.setBorder(BorderFactory.createTitledBorder("Sales"));
+
+            JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            LocalDate today = LocalDate.now();
+            salesFrom = new JTextField(today.minusDays(29).toString()); styleField(salesFrom);
+            salesTo = new JTextField(today.toString()); styleField(salesTo);
+            JButton refresh = new JButton("Refresh");
+            refresh.addActionListener(e -> refreshAnalytics());
+            JButton rebuild = new JButton("Rebuild from history");
+            rebuild.addActionListener(e -> rebuildAnalytics(rebuild));
+            top.add(new JLabel("From (yyyy-mm-dd):")); top.add(salesFrom);
+            top.add(new JLabel("To:")); top.add(salesTo);
+            top.add(refresh); top.add(rebuild);
+
+            JPanel summary = new JPanel(new FlowLayout(FlowLayout.LEFT, 18, 4));
+            revenueLabel = new JLabel(); ordersLabel = new JLabel();
+            unitsLabel = new JLabel(); avgLabel = new JLabel();
+            answeredLabel = new JLabel();
+            answeredLabel.setForeground(Color.GRAY);
+            revenueLabel.setToolTipText("Order totals after coupons");
+            summary.add(revenueLabel); summary.add(ordersLabel); summary.add(unitsLabel);
+            summary.add(avgLabel); summary.add(answeredLabel);
+
+            JPanel north = new JPanel(new GridLayout(2, 1));
+            north.add(top);
+            north.add(summary);
+            p.add(north, BorderLayout.NORTH);
+
+            dailyModel = new DefaultTableModel(new Object[]{"Day", "Orders", "Units", "Net Revenue", "Avg Order"}, 0) {
+                @Override public boolean isCellEditable(int r, int c) { return false; }
+            };
+            topModel = new DefaultTableModel(new Object[]{"Product", "Units", "Gross Line Revenue"}, 0) {
+                @Override public boolean isCellEditable(int r, int c) { return false; }
+            };
+            // the two revenue columns are on different bases: a coupon lowers the order total,
+            // but is not split over the lines, so it only shows on the daily side
+            JTable dailyTable = new JTable(dailyModel);
+            dailyTable.getTableHeader().setToolTipText("Net revenue: order totals after coupons");
+            JTable topTable = new JTable(topModel);
+            topTable.getTableHeader().setToolTipText("Gross line revenue: quantity x unit price, before coupons");
+            JPanel daily = new JPanel(new BorderLayout());
+            daily.setBorder(BorderFactory.createTitledBorder("By day"));
+            daily.add(new JScrollPane(dailyTable), BorderLayout.CENTER);
+            JPanel products = new JPanel(new BorderLayout());
+            products.setBorder(BorderFactory.createTitledBorder("Top products"));
+            products.add(new JScrollPane(topTable), BorderLayout.CENTER);
+            p.add(new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, daily, products), BorderLayout.CENTER);
+
+            refreshAnalytics();
+            return p;
+        }
+
+        private void refreshAnalytics() {
+            LocalDate from, to;
+            try {
+                from = LocalDate.parse(salesFrom.getText().trim());
+                to = LocalDate.parse(salesTo.getText().trim());
+            } catch (DateTimeParseException e) {
+                JOptionPane.showMessageDialog(this, "Dates must look like 2024-05-31.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            long started = System.nanoTime();
+            List<DailySales> days = app.getSalesReportDAO().dailySales(from, to);
+            List<ProductSales> best = app.getSalesReportDAO().topProducts(20);
+            long millis = (System.nanoTime() - started) / 1_000_000;
+
+            long orders = 0, units = 0, revenue = 0;
+            dailyModel.setRowCount(0);
+            for (DailySales d : days) {
+                orders += d.getOrders();
+                units += d.getUnits();
+                revenue += d.getRevenueCents();
+                dailyModel.addRow(new Object[]{d.getDay(), d.getOrders(), d.getUnits(),
+                        Money.format(d.getRevenueCents()), Money.format(d.getAverageOrderCents())});
+            }
+            topModel.setRowCount(0);
+            for (ProductSales s : best) {
+                topModel.addRow(new Object[]{s.getProductName(), s.getUnits(), Money.format(s.getRevenueCents())});
+            }
+            revenueLabel.setText("Net revenue: " + Money.format(revenue));
+            ordersLabel.setText("Orders: " + orders);
+            unitsLabel.setText("Units: " + units);
+            avgLabel.setText("Avg order: " + Money.format(orders == 0 ? 0 : (revenue + orders / 2) / orders));
+            answeredLabel.setText("answered in " + millis + " ms");
+        }
 
-                    int id = Integer.parseInt(s.split("#")[1].split(" ")[0]);
-                    showOrderDetails(id);
+        // Recomputes the aggregates from every order; only needed once after upgrading (or if
+        // they were edited by hand), since checkout and status changes keep them current
+        private void rebuildAnalytics(JButton button) {
+            if (JOptionPane.showConfirmDialog(this,
+                    "Recompute the sales totals from the whole order history?\n" +
+                            "Checkouts wait until it is done.",
+                    "Rebuild Analytics", JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+            button.setEnabled(false);
+            long started = System.nanoTime();
+            new SwingWorker<Boolean, Void>() {
+                @Override
+                protected Boolean doInBackground() {
+                    return app.getSalesReportDAO().rebuild();
                 }
-            });
 
-            JScrollPane scroll = new JScrollPane(ordersList);
-            scroll.setPreferredSize(new Dimension(450,300));
-            p.add(scroll, BorderLayout.CENTER);
+                @Override
+                protected void done() {
+                    button.setEnabled(true);
+                    boolean ok;
+                    try {
+                        ok = get();
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                        ok = false;
+                    }
+                    if (ok) {
+                        refreshAnalytics();
+                        JOptionPane.showMessageDialog(AdminPanel.this, "Sales totals rebuilt in " +
+                                (System.nanoTime() - started) / 1_000_000 + " ms.");
+                    } else {
+                        JOptionPane.showMessageDialog(AdminPanel.this, "Failed to rebuild the sales totals.",
+                                "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
+        }
 
-            refreshOrders(); // Populate list on load
-            return p;
+        // Streams the dump in the background; the progress dialog shows the running count
+        private void exportOrders(JButton button) {
+            JFileChooser chooser = new JFileChooser();
+            chooser.setFileFilter(new FileNameExtensionFilter("Order exports (csv, ndjson)", "csv", "ndjson", "jsonl", "json"));
+            chooser.setSelectedFile(new File("orders-" + LocalDate.now() + ".csv"));
+            if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+            File target = chooser.getSelectedFile();
+            if (!target.getName().contains(".")) target = new File(target.getPath() + ".csv");
+            File file = target;
+
+            JProgressBar bar = new JProgressBar();
+            bar.setIndeterminate(true);
+            bar.setStringPainted(true);
+            bar.setString("Starting...");
+            JDialog progress = new JDialog(SwingUtilities.getWindowAncestor(this), "Exporting to " + file.getName());
+            progress.add(bar);
+            progress.setSize(420, 70);
+            progress.setLocationRelativeTo(this);
+            progress.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+            button.setEnabled(false);
+            progress.setVisible(true);
+
+            new SwingWorker<OrderExporter.Report, String>() {
+                @Override
+                protected OrderExporter.Report doInBackground() throws Exception {
+                    return new OrderExporter(app.getOrderExportDAO())
+                            .export(file, r -> publish(r.getOrders() + " orders, " + r.getLines() + " lines"));
+                }
+
+                @Override
+                protected void process(List<String> updates) {
+                    bar.setString(updates.get(updates.size() - 1));
+                }
+
+                @Override
+                protected void done() {
+                    progress.dispose();
+                    button.setEnabled(true);
+                    try {
+                        OrderExporter.Report r = get();
+                        JOptionPane.showMessageDialog(AdminPanel.this, "Exported " + r + " to " + file.getPath(),
+                                "Export finished", JOptionPane.INFORMATION_MESSAGE);
+                    } catch (Exception ex) {
+                        ex.printStackTrace();
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(AdminPanel.this, "Export failed: " + cause.getMessage(),
+                                "Export Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                }
+            }.execute();
         }
 
         private void refreshAdminOrders() {
-            if (ordersModel == null) return;
-            ordersModel.clear();
-            for(String s : app.getOrderDAO().listAllOrdersWithCustomerName())
-                ordersModel.addElement(s);
+            if (orderBrowser == null) return;
+            orderBrowser.reload();
         }
 
         private void changeStatus(){
             try{
                 int id=Integer.parseInt(orderIdChg.getText().trim());
                 String s=(String)statusBox.getSelectedItem();
-                app.getOrderDAO().changeOrderStatus(id,s);
-                JOptionPane.showMessageDialog(this,"Updated!");
-                refreshAdminOrders();
+                if (app.getOrderDAO().changeOrderStatus(id,s)) {
+                    JOptionPane.showMessageDialog(this,"Updated!");
+                    refreshAdminOrders();
+                } else {
+                    JOptionPane.showMessageDialog(this,
+                            "Order #" + id + " was not changed: it doesn't exist or can't move to " + s + ".",
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
             }catch(Exception ignored){}
         }
-        private void refreshOrders() {
-            ordersModel.clear();
-            for (String s : app.getOrderDAO().listAllOrdersWithCustomerName()) {
-                ordersModel.addElement(s);
+
+        // One batched update for every selected order that may move to the chosen status;
+        // the rest are reported, not sent
+        private void changeSelectedStatus() {
+            List<OrderSummary> selected = orderBrowser.getSelectedOrders();
+            if (selected.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Select one or more orders in the list first.");
+                return;
             }
+            String s = (String) statusBox.getSelectedItem();
+            List<Integer> ids = new ArrayList<>();
+            for (OrderSummary o : selected) {
+                if (OrderStatus.canChange(o.getStatus(), s)) ids.add(o.getOrderId());
+            }
+            int skipped = selected.size() - ids.size();
+            if (ids.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "None of the selected orders can move to " + s + ".",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            String question = "Set " + ids.size() + " order(s) to " + s + "?" +
+                    (skipped > 0 ? "\n" + skipped + " selected order(s) can't move to " + s + " and will be left as they are." : "");
+            if (JOptionPane.showConfirmDialog(this, question, "Change Status",
+                    JOptionPane.OK_CANCEL_OPTION) != JOptionPane.OK_OPTION) return;
+
+            int changed = app.getOrderDAO().changeOrderStatus(ids, s);
+            if (changed < 0) {
+                JOptionPane.showMessageDialog(this, "Failed to update orders.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, changed + " order(s) set to " + s + ".");
+            }
+            refreshAdminOrders();
+        }
+
+        private void refreshOrders() {
+            orderBrowser.reload();
         }
 
         private void deleteOrder() {
@@ -1256,6 +1557,28 @@ public class StoreAppSwing extends JFrame {
                 JOptionPane.showMessageDialog(this, "Invalid order ID.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
+
+        private void deleteSelectedOrders() {
+            List<OrderSummary> selected = orderBrowser.getSelectedOrders();
+            if (selected.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Select one or more orders in the list first.");
+                return;
+            }
+            if (JOptionPane.showConfirmDialog(this, "Delete " + selected.size() + " order(s) and their items?",
+                    "Delete Orders", JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE) != JOptionPane.OK_OPTION) {
+                return;
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (OrderSummary o : selected) ids.add(o.getOrderId());
+
+            int deleted = app.getOrderDAO().deleteOrders(ids);
+            if (deleted < 0) {
+                JOptionPane.showMessageDialog(this, "Failed to delete orders.", "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, deleted + " order(s) deleted.");
+            }
+            refreshOrders();
+        }
     }
 
 }
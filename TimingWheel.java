@@ -0,0 +1,106 @@
+// TimingWheel.java
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Hashed timing wheel for large numbers of coarse timeouts (cart holds and the like).
+//
+// Time is cut into ticks; a timeout lands in slot (deadline tick % slots) and remembers how
+// many full turns of the wheel it still has to wait. Scheduling and cancelling are O(1), and
+// each tick only looks at one slot, however many timeouts are pending - unlike a
+// ScheduledExecutorService, which keeps every task in a priority queue.
+public class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final List<Set<Timeout>> slots;
+    private final Consumer<T> onExpire;
+    private final Thread worker;
+    private long tick;   // ticks processed so far
+    private final long startMillis = System.currentTimeMillis();
+
+    // Handle for one scheduled item
+    public class Timeout {
+        final T item;
+        long rounds;
+        int slot;
+        boolean done;
+
+        Timeout(T item) {
+            this.item = item;
+        }
+
+        // false if it already fired or was cancelled
+        public boolean cancel() {
+            synchronized (TimingWheel.this) {
+                if (done) return false;
+                done = true;
+                slots.get(slot).remove(this);
+                return true;
+            }
+        }
+    }
+
+    public TimingWheel(String name, long tickMillis, int slotCount, Consumer<T> onExpire) {
+        this.tickMillis = tickMillis;
+        this.onExpire = onExpire;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) slots.add(new HashSet<>());
+        this.worker = new Thread(this::run, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public synchronized Timeout schedule(T item, long delayMillis) {
+        Timeout t = new Timeout(item);
+        // round up so an item never fires early; the current tick is already being processed
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        long deadline = tick + ticks;
+        t.slot = (int) (deadline % slots.size());
+        t.rounds = (ticks - 1) / slots.size();
+        slots.get(t.slot).add(t);
+        return t;
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            long next = startMillis + (tick + 1) * tickMillis;
+            long sleep = next - System.currentTimeMillis();
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+
+            List<T> expired = new ArrayList<>();
+            synchronized (this) {
+                tick++;
+                Set<Timeout> slot = slots.get((int) (tick % slots.size()));
+                slot.removeIf(t -> {
+                    if (t.rounds > 0) {
+                        t.rounds--;
+                        return false;
+                    }
+                    t.done = true;
+                    expired.add(t.item);
+                    return true;
+                });
+            }
+            // callbacks run outside the lock so they may schedule or cancel
+            for (T item : expired) {
+                try {
+                    onExpire.accept(item);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    public void stop() {
+        worker.interrupt();
+    }
+}
@@ -0,0 +1,315 @@
+// WriteAheadLog.java
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Append-only redo log for the embedded engine.
+//
+// Every committed transaction becomes one frame: [int length][int crc32][payload].
+// Writers only copy their frame into an in-memory buffer; a single flusher thread
+// writes whatever has accumulated and calls force() once for the whole batch
+// (group commit), so N concurrent commits cost one fsync instead of N. Commits that
+// arrive while an fsync is running simply ride on the next one; flushIntervalMillis
+// can add a short linger to widen batches further at the cost of commit latency.
+public class WriteAheadLog implements Closeable {
+
+    public static final byte INSERT = 1;
+    public static final byte UPDATE = 2;
+    public static final byte DELETE = 3;
+
+    // value tags
+    private static final byte T_NULL = 0, T_INT = 1, T_LONG = 2, T_STRING = 3, T_BOOL = 4, T_DOUBLE = 5;
+
+    private final FileChannel channel;
+    private final long flushIntervalMillis;
+    private final Thread flusher;
+
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream(64 * 1024);
+    private long appendedSeq;   // last frame handed to append()
+    private long durableSeq;    // last frame known to be on disk
+    private volatile IOException failure;   // sticky: once a flush fails the log takes nothing more
+    private volatile boolean closed;
+
+    // One logged row operation
+    public static class Op {
+        public final byte type;
+        public final String table;
+        public final int pk;
+        public final Object[] row; // null for DELETE
+
+        public Op(byte type, String table, int pk, Object[] row) {
+            this.type = type;
+            this.table = table;
+            this.pk = pk;
+            this.row = row;
+        }
+    }
+
+    public interface Replayer {
+        void apply(Op op);
+    }
+
+    public WriteAheadLog(Path path, long flushIntervalMillis) throws IOException {
+        this.flushIntervalMillis = flushIntervalMillis;
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+
+        flusher = new Thread(this::flushLoop, "wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // Reads every intact frame from the start of the log. A torn frame at the tail
+    // (crash in the middle of a write) is cut off so new frames append after the last good one.
+    public synchronized int replay(Replayer replayer) throws IOException {
+        long size = channel.size();
+        long pos = 0;
+        int frames = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+
+        while (pos + 8 <= size) {
+            header.clear();
+            channel.read(header, pos);
+            header.flip();
+            int len = header.getInt();
+            int crc = header.getInt();
+            if (len <= 0 || pos + 8 + len > size) break;
+
+            ByteBuffer body = ByteBuffer.allocate(len);
+            channel.read(body, pos + 8);
+            CRC32 c = new CRC32();
+            c.update(body.array(), 0, len);
+            if ((int) c.getValue() != crc) break;
+
+            for (Op op : decode(body.array())) replayer.apply(op);
+            pos += 8 + len;
+            frames++;
+        }
+
+        if (pos < size) {
+            System.err.println("[wal] discarding " + (size - pos) + " bytes of torn log tail");
+            channel.truncate(pos);
+        }
+        channel.position(pos);
+        return frames;
+    }
+
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    // Queues one transaction's operations and returns its sequence number for awaitDurable()
+    public long append(List<Op> ops) {
+        byte[] payload = encode(ops);
+        CRC32 c = new CRC32();
+        c.update(payload, 0, payload.length);
+
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("write-ahead log is closed");
+            checkHealthy();
+            DataOutputStream out = new DataOutputStream(pending);
+            try {
+                out.writeInt(payload.length);
+                out.writeInt((int) c.getValue());
+                out.write(payload);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // ByteArrayOutputStream never throws
+            }
+            long seq = ++appendedSeq;
+            lock.notifyAll();
+            return seq;
+        }
+    }
+
+    // Throws once a flush has failed: frames queued since may never reach the disk
+    public void checkHealthy() {
+        IOException f = failure;
+        if (f != null) throw new UncheckedIOException("write-ahead log failed", f);
+    }
+
+    // Blocks until the frame with this sequence number has been fsynced
+    public void awaitDurable(long seq) {
+        synchronized (lock) {
+            while (durableSeq < seq) {
+                if (failure != null) throw new UncheckedIOException("write-ahead log failed", failure);
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted waiting for log flush", e);
+                }
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            ByteArrayOutputStream batch;
+            long batchSeq;
+            synchronized (lock) {
+                while (pending.size() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending.size() == 0) return;
+            }
+
+            // optional linger so more committers pile onto this batch
+            if (flushIntervalMillis > 0 && !closed) {
+                try {
+                    Thread.sleep(flushIntervalMillis);
+                } catch (InterruptedException ignored) {
+                }
+            }
+
+            synchronized (lock) {
+                batch = pending;
+                batchSeq = appendedSeq;
+                pending = new ByteArrayOutputStream(64 * 1024);
+            }
+
+            try {
+                ByteBuffer buf = ByteBuffer.wrap(batch.toByteArray());
+                while (buf.hasRemaining()) channel.write(buf);
+                channel.force(false);
+                synchronized (lock) {
+                    durableSeq = batchSeq;
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                e.printStackTrace();
+                return;
+            }
+        }
+    }
+
+    // Replaces the log file with a compact one holding a single INSERT per live row.
+    // Must be called while no WriteAheadLog is open on the path.
+    public static void writeCompacted(Path path, List<Op> snapshot) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // chunk the snapshot so no single frame gets huge
+            for (int i = 0; i < snapshot.size(); i += 1000) {
+                byte[] payload = encode(snapshot.subList(i, Math.min(snapshot.size(), i + 1000)));
+                CRC32 c = new CRC32();
+                c.update(payload, 0, payload.length);
+                ByteBuffer buf = ByteBuffer.allocate(8 + payload.length);
+                buf.putInt(payload.length).putInt((int) c.getValue()).put(payload).flip();
+                while (buf.hasRemaining()) out.write(buf);
+            }
+            out.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join(5_000);
+            channel.close();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static byte[] encode(List<Op> ops) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(ops.size());
+            for (Op op : ops) {
+                out.writeByte(op.type);
+                out.writeUTF(op.table);
+                out.writeInt(op.pk);
+                if (op.type != DELETE) {
+                    out.writeShort(op.row.length);
+                    for (Object v : op.row) writeValue(out, v);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Op> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int n = in.readInt();
+        List<Op> ops = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            byte type = in.readByte();
+            String table = in.readUTF();
+            int pk = in.readInt();
+            Object[] row = null;
+            if (type != DELETE) {
+                row = new Object[in.readShort()];
+                for (int c = 0; c < row.length; c++) row[c] = readValue(in);
+            }
+            ops.add(new Op(type, table, pk, row));
+        }
+        return ops;
+    }
+
+    private static void writeValue(DataOutputStream out, Object v) throws IOException {
+        if (v == null) {
+            out.writeByte(T_NULL);
+        } else if (v instanceof Integer) {
+            out.writeByte(T_INT);
+            out.writeInt((Integer) v);
+        } else if (v instanceof Long) {
+            out.writeByte(T_LONG);
+            out.writeLong((Long) v);
+        } else if (v instanceof String) {
+            // writeUTF is limited to 64KB; descriptions can be longer
+            byte[] b = ((String) v).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(T_STRING);
+            out.writeInt(b.length);
+            out.write(b);
+        } else if (v instanceof Boolean) {
+            out.writeByte(T_BOOL);
+            out.writeBoolean((Boolean) v);
+        } else if (v instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble((Double) v);
+        } else {
+            throw new IllegalArgumentException("Unsupported column type " + v.getClass());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case T_NULL: return null;
+            case T_INT: return in.readInt();
+            case T_LONG: return in.readLong();
+            case T_STRING: {
+                byte[] b = new byte[in.readInt()];
+                in.readFully(b);
+                return new String(b, StandardCharsets.UTF_8);
+            }
+            case T_BOOL: return in.readBoolean();
+            case T_DOUBLE: return in.readDouble();
+            default: throw new IOException("Corrupt log value tag " + tag);
+        }
+    }
+}
@@ -52,6 +52,7 @@ CREATE TABLE IF NOT EXISTS orders (
     created_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at   TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                      ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_orders_created (created_at),
     CONSTRAINT fk_orders_customer 
         FOREIGN KEY (customer_id) REFERENCES users(user_id),
     CONSTRAINT fk_orders_coupon
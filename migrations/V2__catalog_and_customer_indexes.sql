@@ -0,0 +1,10 @@
+-- listActiveProducts and the catalog pages: WHERE active = 1 [AND product_id < ?]
+-- ORDER BY product_id DESC becomes a backward range scan instead of a full scan + filesort.
+ALTER TABLE products
+    ADD INDEX idx_products_active_id (active, product_id),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- listCustomers: WHERE role = 'CUSTOMER' ORDER BY full_name reads the index in order.
+ALTER TABLE users
+    ADD INDEX idx_users_role_name (role, full_name),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,10 @@
+-- Order events written by OrderDAO in the same transaction as the order change (see OrderEvent).
+-- OutboxRelay copies them to the local event log and deletes them, always keeping the newest
+-- relayed row so AUTO_INCREMENT can't restart below ids the log has already seen.
+CREATE TABLE IF NOT EXISTS order_outbox (
+    outbox_id   BIGINT AUTO_INCREMENT PRIMARY KEY,
+    order_id    INT NOT NULL,
+    event_type  VARCHAR(30) NOT NULL,
+    payload     TEXT NOT NULL,
+    created_at  TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+);
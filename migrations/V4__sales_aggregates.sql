@@ -0,0 +1,22 @@
+-- Sales totals kept up to date by OrderDAO in the same transaction as each order change, so the
+-- Analytics tab never has to scan orders/order_items. Cancelled orders are not counted.
+-- SalesReportDAO.rebuild() recomputes both tables from the order history.
+
+-- One row per day and slot (order_id % 16): concurrent checkouts add to different rows
+-- instead of queueing on a single row lock for today. Reports sum the slots.
+CREATE TABLE IF NOT EXISTS sales_daily (
+    day            DATE NOT NULL,
+    slot           TINYINT NOT NULL,
+    orders         INT NOT NULL DEFAULT 0,
+    units          BIGINT NOT NULL DEFAULT 0,
+    revenue_cents  BIGINT NOT NULL DEFAULT 0,   -- order totals after coupons
+    PRIMARY KEY (day, slot)
+);
+
+-- Checkout already locks these products' rows for the stock update, so no new contention.
+CREATE TABLE IF NOT EXISTS sales_by_product (
+    product_id     INT PRIMARY KEY,
+    units          BIGINT NOT NULL DEFAULT 0,
+    revenue_cents  BIGINT NOT NULL DEFAULT 0,   -- line totals before coupons
+    INDEX idx_sales_by_product_revenue (revenue_cents)
+);